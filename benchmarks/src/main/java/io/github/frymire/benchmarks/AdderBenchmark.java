@@ -0,0 +1,73 @@
+// UNCLASSIFIED
+
+package io.github.frymire.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.frymire.Adder;
+
+// Compare per-element scalar calls with the bulk forms. Scores are in invocations per
+// second; multiply by size and by 12 (int) or 24 (double) bytes for GB/s moved.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AdderBenchmark {
+
+  @Param({"1024", "1048576"})
+  int size;
+
+  Adder adder = new Adder();
+  int[] ia, ib, iout;
+  double[] da, db, dout;
+
+  @Setup public void setUp() {
+    Random random = new Random(42);
+    ia = new int[size]; ib = new int[size]; iout = new int[size];
+    da = new double[size]; db = new double[size]; dout = new double[size];
+    for (int i = 0; i < size; i++) {
+      ia[i] = random.nextInt(); ib[i] = random.nextInt();
+      da[i] = random.nextDouble(); db[i] = random.nextDouble();
+    }
+  }
+
+  @Benchmark public void scalarIntStore() {
+    for (int i = 0; i < size; i++) { iout[i] = adder.add(ia[i], ib[i]); }
+  }
+
+  @Benchmark public void bulkInt(Blackhole blackhole) {
+    adder.add(ia, ib, iout);
+    blackhole.consume(iout);
+  }
+
+  @Benchmark public void scalarDoubleStore() {
+    for (int i = 0; i < size; i++) { dout[i] = adder.add(da[i], db[i]); }
+  }
+
+  @Benchmark public void bulkDouble(Blackhole blackhole) {
+    adder.add(da, db, dout);
+    blackhole.consume(dout);
+  }
+
+  @Benchmark public void accumulateInt(Blackhole blackhole) {
+    adder.accumulate(iout, ia);
+    blackhole.consume(iout);
+  }
+
+}
@@ -0,0 +1,32 @@
+// UNCLASSIFIED
+
+package io.github.frymire.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Run the benchmarks with the GC profiler attached and write the results as JSON, so runs
+// can be compared. Usage: java -jar target/benchmarks.jar [regex] [result.json]
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws RunnerException {
+
+    String include = args.length > 0 ? args[0] : "io\\.github\\.frymire\\.benchmarks\\..*";
+    String resultFile = args.length > 1 ? args[1] : "target/jmh-result.json";
+
+    Options options = new OptionsBuilder()
+        .include(include)
+        .addProfiler(GCProfiler.class)
+        .resultFormat(ResultFormatType.JSON)
+        .result(resultFile)
+        .build();
+
+    new Runner(options).run();
+
+  }
+
+}
@@ -0,0 +1,55 @@
+// UNCLASSIFIED
+
+package io.github.frymire.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.frymire.Adder;
+import io.github.frymire.TracedAdder;
+
+// The cost per Adder.add() call of recording it in InvocationTrace, through a TracedAdder,
+// against the same calls on a plain Adder. The traced forks keep a small ring so that it stays in cache, and the
+// shared variant shows what contention on the ring's counter adds with four threads.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InvocationTraceBenchmark {
+
+  private static final int CALLS = 1024;
+
+  Adder adder = new Adder();
+  Adder tracedAdder = new TracedAdder();
+
+  @Benchmark @OperationsPerInvocation(CALLS)
+  public int untraced() { return addAll(adder); }
+
+  @Benchmark @OperationsPerInvocation(CALLS)
+  @Fork(value = 2, jvmArgsAppend = "-Dfrymire.trace.capacity=65536")
+  public int traced() { return addAll(tracedAdder); }
+
+  @Benchmark @OperationsPerInvocation(CALLS) @Threads(4)
+  @Fork(value = 2, jvmArgsAppend = "-Dfrymire.trace.capacity=65536")
+  public int tracedShared() { return addAll(tracedAdder); }
+
+  private static int addAll(Adder adder) {
+    int total = 0;
+    for (int i = 0; i < CALLS; i++) { total = adder.add(total, i); }
+    return total;
+  }
+
+}
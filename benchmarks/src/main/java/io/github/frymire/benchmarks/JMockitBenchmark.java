@@ -0,0 +1,140 @@
+// UNCLASSIFIED
+
+package io.github.frymire.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.frymire.Adder;
+import mockit.Capturing;
+import mockit.Expectations;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+
+import static org.junit.Assert.assertEquals;
+
+// Measure what JMockit costs next to real collaborators, to show where swapping a mock for
+// a real or fake object pays off. The *Test benchmarks run a one-test class through JUnit,
+// so the difference between mockedTest and realTest is the per-test cost of @Mocked and
+// its Expectations, and capturingTest adds redefining every loaded implementation of an
+// interface. The *Calls benchmarks do the same with CALLS add() calls inside the test, so
+// (mockedCalls - mockedTest) is the cost of each mocked call. The *Add benchmarks are
+// single calls outside any test: a real Adder and one faked with a MockUp.
+//
+// JMockit 1.24 only runs on JDK 8 to 11. Each benchmark forks a fresh JVM, so classes
+// redefined by one don't slow down the next.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JMockitBenchmark {
+
+  static final int CALLS = 1000;
+
+  // An interface with several implementations loaded up front, all of which @Capturing
+  // has to find and redefine, though only instances created in the test are captured.
+  public interface Value { int get(); }
+  static final Value[] VALUES = {
+    new Value() { public int get() { return 1; } }, new Value() { public int get() { return 2; } },
+    new Value() { public int get() { return 3; } }, new Value() { public int get() { return 4; } },
+    new Value() { public int get() { return 5; } }, new Value() { public int get() { return 6; } },
+    new Value() { public int get() { return 7; } }, new Value() { public int get() { return 8; } }
+  };
+
+  // The test classes that the benchmarks run. JMockit sits beside benchmarks.jar rather
+  // than ahead of JUnit on the classpath, so the mocked ones start it with their runner.
+
+  public static class RealCase {
+    @Test public void add() { assertEquals(2, new Adder().add(1, 1)); }
+  }
+
+  @RunWith(JMockit.class)
+  public static class MockedCase {
+    @Mocked Adder adder;
+    @Test public void add() {
+      new Expectations() {{ adder.add(anyInt, anyInt); result = 10; }};
+      assertEquals(10, adder.add(1, 1));
+    }
+  }
+
+  @RunWith(JMockit.class)
+  public static class CapturingCase {
+    @Test public void get(@Capturing final Value anyValue) {
+      new Expectations() {{ anyValue.get(); result = 10; }};
+      assertEquals(10, new Value() { public int get() { return VALUES.length; } }.get());
+    }
+  }
+
+  public static class RealCallsCase {
+    @Test public void add() {
+      Adder adder = new Adder();
+      int total = 0;
+      for (int i = 0; i < CALLS; i++) { total = adder.add(total, 1); }
+      assertEquals(CALLS, total);
+    }
+  }
+
+  @RunWith(JMockit.class)
+  public static class MockedCallsCase {
+    @Mocked Adder adder;
+    @Test public void add() {
+      new Expectations() {{ adder.add(anyInt, anyInt); result = 10; }};
+      int total = 0;
+      for (int i = 0; i < CALLS; i++) { total += adder.add(total, 1); }
+      assertEquals(10 * CALLS, total);
+    }
+  }
+
+  // An Adder whose add() is replaced with a MockUp for the whole fork.
+  @State(Scope.Thread)
+  public static class FakedAdder {
+    Adder adder;
+    MockUp<Adder> fake;
+    @Setup public void setUp() {
+      fake = new MockUp<Adder>() { @Mock int add(int a, int b) { return a + b; } };
+      adder = new Adder();
+    }
+    @TearDown public void tearDown() { fake.tearDown(); }
+  }
+
+  private final JUnitCore junit = new JUnitCore();
+  Adder adder = new Adder();
+  int a = 1, b = 2;
+
+  @Benchmark public Result realTest() { return run(RealCase.class); }
+  @Benchmark public Result mockedTest() { return run(MockedCase.class); }
+  @Benchmark public Result capturingTest() { return run(CapturingCase.class); }
+  @Benchmark public Result realCalls() { return run(RealCallsCase.class); }
+  @Benchmark public Result mockedCalls() { return run(MockedCallsCase.class); }
+
+  @Benchmark @OutputTimeUnit(TimeUnit.NANOSECONDS) public int realAdd() { return adder.add(a, b); }
+  @Benchmark @OutputTimeUnit(TimeUnit.NANOSECONDS) public int mockUpAdd(FakedAdder faked) { return faked.adder.add(a, b); }
+
+  // Fail loudly rather than time a broken setup.
+  private Result run(Class<?> testClass) {
+    Result result = junit.run(Request.aClass(testClass));
+    if (!result.wasSuccessful()) { throw new IllegalStateException(testClass.getSimpleName() + " failed: " + result.getFailures()); }
+    return result;
+  }
+
+}
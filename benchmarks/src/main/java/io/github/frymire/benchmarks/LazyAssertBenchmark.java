@@ -0,0 +1,49 @@
+// UNCLASSIFIED
+
+package io.github.frymire.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.frymire.Adder;
+import io.github.frymire.LazyAssert;
+
+// Verify a run of sums in a loop, once with JUnit's assertTrue and a message built for every
+// check, and once with LazyAssert, which only formats its message when a check fails. Scores
+// are per check; run with -prof gc to see the allocation.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LazyAssertBenchmark {
+
+  private static final int CHECKS = 1024;
+
+  Adder adder = new Adder();
+  int[] sums = new int[CHECKS];
+
+  @Setup public void setUp() { for (int i = 0; i < CHECKS; i++) { sums[i] = i + 1; } }
+
+  @Benchmark @OperationsPerInvocation(CHECKS) public void eagerMessage() {
+    for (int i = 0; i < CHECKS; i++) { Assert.assertTrue("add(" + i + ", 1) was wrong", adder.add(i, 1) == sums[i]); }
+  }
+
+  @Benchmark @OperationsPerInvocation(CHECKS) public void lazyMessage() {
+    for (int i = 0; i < CHECKS; i++) { LazyAssert.check(adder.add(i, 1) == sums[i], "add(%d, 1) was wrong", i); }
+  }
+
+}
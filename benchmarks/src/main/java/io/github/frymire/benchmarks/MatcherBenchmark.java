@@ -0,0 +1,70 @@
+// UNCLASSIFIED
+
+package io.github.frymire.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.frymire.CompiledMatcher;
+
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.CoreMatchers.anyOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+
+// Match a column of mixed values against the nested allOf/anyOf/not chains of the kind in
+// HamcrestExamples, with the stock Hamcrest matchers and the same ones compiled by
+// CompiledMatcher. Scores are per value.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MatcherBenchmark {
+
+  private static final int ROWS = 4096;
+
+  // Written expensive checks first, as they often are.
+  static final Matcher<Object> VALID = is(allOf(
+      not(anyOf(equalTo((Object) "N/A"), equalTo((Object) "-"), equalTo((Object) ""))),
+      anyOf(allOf(instanceOf(String.class), notNullValue()), instanceOf(Integer.class)),
+      not(nullValue())));
+
+  Object[] rows = new Object[ROWS];
+  Matcher<Object> stock = VALID;
+  Matcher<Object> compiled = CompiledMatcher.compile(VALID);
+
+  @Setup public void setUp() {
+    Random random = new Random(42);
+    Object[] values = {"Hello", "N/A", null, 42, "-", 4.0, "", "World"};
+    for (int i = 0; i < ROWS; i++) { rows[i] = values[random.nextInt(values.length)]; }
+  }
+
+  @Benchmark @OperationsPerInvocation(ROWS) public int stock() { return count(stock); }
+  @Benchmark @OperationsPerInvocation(ROWS) public int compiled() { return count(compiled); }
+
+  private int count(Matcher<Object> matcher) {
+    int matched = 0;
+    for (Object row : rows) { if (matcher.matches(row)) { matched++; } }
+    return matched;
+  }
+
+}
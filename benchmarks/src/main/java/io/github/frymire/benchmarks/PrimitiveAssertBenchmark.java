@@ -0,0 +1,86 @@
+// UNCLASSIFIED
+
+package io.github.frymire.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.frymire.Adder;
+import io.github.frymire.PrimitiveAssert;
+
+// Verify bulk sums against their expected results with JUnit's assertArrayEquals and with
+// PrimitiveAssert. JUnit compares exactly equal arrays in bulk too, but boxes every element
+// of doubles that are only equal within a tolerance. Scores are in milliseconds per whole
+// array. The largest size needs the 3 GB heap given to the forks.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx3g")
+public class PrimitiveAssertBenchmark {
+
+  // Exactly equal ints, in arrays and in direct buffers.
+  @State(Scope.Thread)
+  public static class Ints {
+    @Param({"1048576", "100000000"})
+    int size;
+    int[] expected, actual;
+    IntBuffer expectedBuffer, actualBuffer;
+    @Setup public void setUp() {
+      Random random = new Random(42);
+      int[] a = new int[size], b = new int[size];
+      expected = new int[size];
+      actual = new int[size];
+      for (int i = 0; i < size; i++) {
+        a[i] = random.nextInt(); b[i] = random.nextInt();
+        expected[i] = a[i] + b[i];
+      }
+      new Adder().add(a, b, actual);
+      expectedBuffer = ByteBuffer.allocateDirect(4 * size).asIntBuffer().put(expected);
+      actualBuffer = ByteBuffer.allocateDirect(4 * size).asIntBuffer().put(actual);
+      expectedBuffer.flip();
+      actualBuffer.flip();
+    }
+  }
+
+  // Sums of three doubles added in a different order, so they differ in the last bits.
+  @State(Scope.Thread)
+  public static class Doubles {
+    @Param({"1048576", "100000000"})
+    int size;
+    double[] expected, actual;
+    @Setup public void setUp() {
+      Random random = new Random(42);
+      expected = new double[size];
+      actual = new double[size];
+      for (int i = 0; i < size; i++) {
+        double a = random.nextDouble(), b = random.nextDouble(), c = random.nextDouble();
+        expected[i] = (a + b) + c;
+        actual[i] = a + (b + c);
+      }
+    }
+  }
+
+  @Benchmark public void junitInts(Ints ints) { Assert.assertArrayEquals(ints.expected, ints.actual); }
+  @Benchmark public void primitiveInts(Ints ints) { PrimitiveAssert.equal(ints.expected, ints.actual); }
+  @Benchmark public void primitiveIntBuffers(Ints ints) { PrimitiveAssert.equal(ints.expectedBuffer, ints.actualBuffer); }
+
+  @Benchmark public void junitDoubles(Doubles doubles) { Assert.assertArrayEquals(doubles.expected, doubles.actual, 1e-12); }
+  @Benchmark public void primitiveDoubles(Doubles doubles) { PrimitiveAssert.equal(doubles.expected, doubles.actual, 1e-12); }
+
+}
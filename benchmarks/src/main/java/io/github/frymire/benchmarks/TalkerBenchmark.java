@@ -0,0 +1,56 @@
+// UNCLASSIFIED
+
+package io.github.frymire.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.frymire.Talker;
+
+// Measure sayHi() on its own and with the UTF-8 encode that every write to a socket or
+// log pays, against the pre-encoded write paths. Run with the GC profiler to compare the
+// allocation rates; the write paths should show none.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TalkerBenchmark {
+
+  Talker talker = new Talker();
+  ByteBuffer buffer = ByteBuffer.allocateDirect(talker.hiLength());
+  OutputStream sink = new OutputStream() {
+    @Override public void write(int b) {}
+    @Override public void write(byte[] b, int off, int len) {}
+  };
+  WritableByteChannel channel = Channels.newChannel(sink);
+
+  @Benchmark public String sayHi() { return talker.sayHi(); }
+  @Benchmark public byte[] sayHiEncoded() { return talker.sayHi().getBytes(StandardCharsets.UTF_8); }
+
+  @Benchmark public ByteBuffer writeHiToBuffer() {
+    buffer.clear();
+    talker.writeHi(buffer);
+    return buffer;
+  }
+
+  @Benchmark public void writeHiToStream() throws IOException { talker.writeHi(sink); }
+  @Benchmark public void writeHiToChannel() throws IOException { talker.writeHi(channel); }
+
+}
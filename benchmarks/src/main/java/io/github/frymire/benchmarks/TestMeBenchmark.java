@@ -0,0 +1,65 @@
+// UNCLASSIFIED
+
+package io.github.frymire.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.frymire.Adder;
+import io.github.frymire.TestMe;
+
+// Measure TestMe.add() through a call site that only ever sees one Adder type versus one
+// that sees four, which defeats inlining of the delegated add() call. Each benchmark runs
+// in its own fork, so the type profiles don't leak into each other.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TestMeBenchmark {
+
+  private static final int CALLS = 1024;
+
+  static class PlusOneAdder extends Adder { @Override public int add(int a, int b) { return a + b + 1; } }
+  static class MinusAdder extends Adder { @Override public int add(int a, int b) { return a - b; } }
+  static class XorAdder extends Adder { @Override public int add(int a, int b) { return a ^ b; } }
+
+  TestMe[] monomorphic = new TestMe[CALLS];
+  TestMe[] megamorphic = new TestMe[CALLS];
+  int[] is = new int[CALLS], js = new int[CALLS], out = new int[CALLS];
+
+  public TestMeBenchmark() {
+    Adder[] adders = {new Adder(), new PlusOneAdder(), new MinusAdder(), new XorAdder()};
+    for (int i = 0; i < CALLS; i++) {
+      monomorphic[i] = new TestMe("mono", true, adders[0]);
+      megamorphic[i] = new TestMe("mega", true, adders[i % adders.length]);
+    }
+  }
+
+  @Benchmark @OperationsPerInvocation(CALLS) public int monomorphic() { return addAll(monomorphic); }
+  @Benchmark @OperationsPerInvocation(CALLS) public int megamorphic() { return addAll(megamorphic); }
+
+  // The same number of additions through one batch call.
+  @Benchmark @OperationsPerInvocation(CALLS) public int[] batch() {
+    monomorphic[0].add(is, js, out);
+    return out;
+  }
+
+  private static int addAll(TestMe[] testMes) {
+    int total = 0;
+    for (int i = 0; i < testMes.length; i++) { total += testMes[i].add(i, total); }
+    return total;
+  }
+
+}
@@ -2,6 +2,9 @@
 
 package io.github.frymire;
 
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+
 // This is used in the JMockit demos.
 public class Adder {
   
@@ -13,4 +16,79 @@ public class Adder {
   public int add(int a, int b) { return a + b; }
   public double add(double a, double b) { return a + b; }
 
-}  
+  // Add arrays element-wise into out. The loops are kept free of calls and branches so
+  // that C2 can unroll and auto-vectorize them into packed SIMD adds. They don't go through
+  // add(int, int), so a subclass that changes how two values add overrides these as well.
+  public void add(int[] a, int[] b, int[] out) { addRange(a, 0, b, 0, out, 0, checkLength(a, b, out)); }
+  public void add(double[] a, double[] b, double[] out) { addRange(a, 0, b, 0, out, 0, checkLength(a, b, out)); }
+
+  public void add(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length) {
+    checkRange(a.length, aOffset, b.length, bOffset, out.length, outOffset, length);
+    addRange(a, aOffset, b, bOffset, out, outOffset, length);
+  }
+
+  public void add(double[] a, int aOffset, double[] b, int bOffset, double[] out, int outOffset, int length) {
+    checkRange(a.length, aOffset, b.length, bOffset, out.length, outOffset, length);
+    addRange(a, aOffset, b, bOffset, out, outOffset, length);
+  }
+
+  // Accumulate b into acc in place (acc[i] += b[i]).
+  public void accumulate(int[] acc, int[] b) { accumulateRange(acc, 0, b, 0, checkLength(acc, b)); }
+  public void accumulate(double[] acc, double[] b) { accumulateRange(acc, 0, b, 0, checkLength(acc, b)); }
+
+  public void accumulate(int[] acc, int accOffset, int[] b, int bOffset, int length) {
+    checkRange(acc.length, accOffset, b.length, bOffset, acc.length, accOffset, length);
+    accumulateRange(acc, accOffset, b, bOffset, length);
+  }
+
+  public void accumulate(double[] acc, int accOffset, double[] b, int bOffset, int length) {
+    checkRange(acc.length, accOffset, b.length, bOffset, acc.length, accOffset, length);
+    accumulateRange(acc, accOffset, b, bOffset, length);
+  }
+
+  // The loops themselves, for ranges already checked.
+  private static void addRange(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length) {
+    for (int i = 0; i < length; i++) { out[outOffset + i] = a[aOffset + i] + b[bOffset + i]; }
+  }
+
+  private static void addRange(double[] a, int aOffset, double[] b, int bOffset, double[] out, int outOffset, int length) {
+    for (int i = 0; i < length; i++) { out[outOffset + i] = a[aOffset + i] + b[bOffset + i]; }
+  }
+
+  private static void accumulateRange(int[] acc, int accOffset, int[] b, int bOffset, int length) {
+    for (int i = 0; i < length; i++) { acc[accOffset + i] += b[bOffset + i]; }
+  }
+
+  private static void accumulateRange(double[] acc, int accOffset, double[] b, int bOffset, int length) {
+    for (int i = 0; i < length; i++) { acc[accOffset + i] += b[bOffset + i]; }
+  }
+
+  // View add() as a reduction operator, e.g. IntStream.reduce(0, adder.intOperator()). Get
+  // the operator once and reuse it; applying it allocates nothing.
+  public IntBinaryOperator intOperator() { return this::add; }
+  public DoubleBinaryOperator doubleOperator() { return this::add; }
+
+  // Sum an array with compensation, so that precision isn't lost to rounding the way it is
+  // when add(double, double) is called in a loop. See CompensatedSum.
+  public double sum(double[] values) { return CompensatedSum.sum(values); }
+
+  // Validate everything up front, so the loops above carry no checks of their own.
+  private static int checkLength(int[] a, int[] b, int[] out) { return checkLength(a.length, b.length, out.length); }
+  private static int checkLength(double[] a, double[] b, double[] out) { return checkLength(a.length, b.length, out.length); }
+  private static int checkLength(int[] acc, int[] b) { return checkLength(acc.length, b.length, acc.length); }
+  private static int checkLength(double[] acc, double[] b) { return checkLength(acc.length, b.length, acc.length); }
+
+  private static int checkLength(int aLength, int bLength, int outLength) {
+    if (aLength != bLength || aLength != outLength) { throw new IllegalArgumentException("Array lengths differ."); }
+    return aLength;
+  }
+
+  private static void checkRange(int aLength, int aOffset, int bLength, int bOffset,
+      int outLength, int outOffset, int length) {
+    if (length < 0 || aOffset < 0 || bOffset < 0 || outOffset < 0
+        || aOffset > aLength - length || bOffset > bLength - length || outOffset > outLength - length) {
+      throw new ArrayIndexOutOfBoundsException("Range out of bounds: length " + length);
+    }
+  }
+
+}
@@ -0,0 +1,42 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+// Stream reductions that add through an Adder. The collectors keep their running total in a
+// one-element primitive array, so nothing is boxed until the finisher, and the combiner
+// folds the right partial into the left one in place. Addition is commutative, so they're
+// UNORDERED and parallel streams are free to merge partials in any order.
+public class AdderCollectors {
+
+  private AdderCollectors() {}
+
+  public static <T> Collector<T, int[], Integer> summingInt(final Adder adder, final ToIntFunction<? super T> mapper) {
+    return Collector.of(
+        () -> new int[1],
+        (acc, t) -> acc[0] = adder.add(acc[0], mapper.applyAsInt(t)),
+        (left, right) -> { left[0] = adder.add(left[0], right[0]); return left; },
+        acc -> acc[0],
+        Collector.Characteristics.UNORDERED);
+  }
+
+  public static <T> Collector<T, double[], Double> summingDouble(final Adder adder, final ToDoubleFunction<? super T> mapper) {
+    return Collector.of(
+        () -> new double[1],
+        (acc, t) -> acc[0] = adder.add(acc[0], mapper.applyAsDouble(t)),
+        (left, right) -> { left[0] = adder.add(left[0], right[0]); return left; },
+        acc -> acc[0],
+        Collector.Characteristics.UNORDERED);
+  }
+
+  // Primitive streams reduce without a collector at all. These allocate nothing per element
+  // and split across the common fork/join pool when the stream is parallel.
+  public static int sum(Adder adder, IntStream values) { return values.reduce(0, adder.intOperator()); }
+  public static double sum(Adder adder, DoubleStream values) { return values.reduce(0.0, adder.doubleOperator()); }
+
+}
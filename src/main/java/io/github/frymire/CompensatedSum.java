@@ -0,0 +1,88 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.DoubleStream;
+
+// Accurate, reproducible sums of doubles. Each leaf block is summed with Neumaier's variant
+// of Kahan compensation, and blocks are combined pairwise up a fork/join tree. The tree's
+// shape depends only on the input length, never on the pool, so the result is the same
+// bit-for-bit at any level of parallelism.
+public class CompensatedSum {
+
+  static final int LEAF_SIZE = 4096;
+
+  public static double sum(double[] values) { return sum(values, 0, values.length, ForkJoinPool.commonPool()); }
+  public static double sum(double[] values, ForkJoinPool pool) { return sum(values, 0, values.length, pool); }
+
+  public static double sum(double[] values, int from, int to, ForkJoinPool pool) {
+    if (from < 0 || to > values.length || from > to) {
+      throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for " + values.length);
+    }
+    return sum(from, to, (start, end) -> leaf(values, (int) start, (int) end), pool);
+  }
+
+  // Sums one leaf block [from, to) of some sequence of doubles into a (sum, compensation)
+  // pair, e.g. with add() below. Leaves may be summed on several threads at once.
+  interface Leaves { double[] sum(long from, long to); }
+
+  // Sum the sequence [from, to) with the same tree as an array of that length, so that a
+  // source other than an array (e.g. MappedFileAdder's file) gets the same result.
+  static double sum(long from, long to, Leaves leaves, ForkJoinPool pool) {
+    double[] acc = to - from <= LEAF_SIZE ? leaves.sum(from, to) : pool.invoke(new SumTask(leaves, from, to));
+    return acc[0] + acc[1];
+  }
+
+  // A stream's own splits depend on the pool size, so it's drained into an array first and
+  // then summed with the fixed tree above.
+  public static double sum(DoubleStream values) { return sum(values.toArray()); }
+
+  // Add value to the running (sum, compensation) pair in acc.
+  static void add(double[] acc, double value) {
+    double sum = acc[0] + value;
+    if (Math.abs(acc[0]) >= Math.abs(value)) { acc[1] += (acc[0] - sum) + value; }
+    else { acc[1] += (value - sum) + acc[0]; }
+    acc[0] = sum;
+  }
+
+  // Fold the (sum, compensation) pair in other into acc.
+  static void combine(double[] acc, double[] other) {
+    add(acc, other[0]);
+    acc[1] += other[1];
+  }
+
+  private static double[] leaf(double[] values, int from, int to) {
+    double[] acc = new double[2];
+    for (int i = from; i < to; i++) { add(acc, values[i]); }
+    return acc;
+  }
+
+  private static class SumTask extends RecursiveTask<double[]> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Leaves leaves;
+    private final long from;
+    private final long to;
+
+    SumTask(Leaves leaves, long from, long to) {
+      this.leaves = leaves;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override protected double[] compute() {
+      if (to - from <= LEAF_SIZE) { return leaves.sum(from, to); }
+      long middle = (from + to) >>> 1;
+      SumTask right = new SumTask(leaves, middle, to);
+      right.fork();
+      double[] acc = new SumTask(leaves, from, middle).compute();
+      combine(acc, right.join());
+      return acc;
+    }
+
+  }
+
+}
@@ -0,0 +1,176 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// An opt-in record of calls to selected objects, cheap enough to leave on under load. Use
+// TracedAdder or TracedTalker in place of Adder or Talker and each call on them is recorded
+// into a preallocated ring buffer: a method number and up to two primitive arguments per
+// slot, claimed with one atomic increment, so recording neither locks nor allocates. The
+// plain classes record nothing and carry no trace code.
+//
+// Read the trace once the traced threads have finished (e.g. joined), and check it in the
+// manner of JMockit's VerificationsInOrder:
+//
+//   InvocationTrace.verifyInOrder(call("Adder.add(int,int)", 1, 1), call("Talker.sayHi()"));
+//
+// The buffer holds the latest -Dfrymire.trace.capacity calls (2^20 by default, 2^28 at
+// most); older ones are overwritten, and verification fails rather than judge a partial trace.
+public final class InvocationTrace {
+
+  // How an argument is kept in its long slot.
+  public enum Slot { INT, LONG, DOUBLE }
+
+  // Matches any value in verifications.
+  public static final Object ANY = new Object() { @Override public String toString() { return "any"; } };
+
+  private static final List<String> names = new ArrayList<String>();
+  private static final List<Slot[]> slots = new ArrayList<Slot[]>();
+
+  private InvocationTrace() {}
+
+  // Number a traced method, e.g. method("Adder.add(int,int)", Slot.INT, Slot.INT).
+  public static synchronized int method(String name, Slot... argumentSlots) {
+    if (argumentSlots.length > 2) { throw new IllegalArgumentException("At most two arguments are traced."); }
+    int id = names.indexOf(name);
+    if (id >= 0) { return id; }
+    names.add(name);
+    slots.add(argumentSlots);
+    return names.size() - 1;
+  }
+
+  // The buffer, allocated on the first call recorded. Each slot is four longs (the method,
+  // two arguments and one unused), so that a slot's index is a shift of its number. The
+  // capacity is capped so that the array's length still fits in an int.
+  private static final class Ring {
+    static final int CAPACITY = Integer.highestOneBit(Math.min(Math.max(Integer.getInteger("frymire.trace.capacity", 1 << 20), 2), 1 << 28));
+    static final int MASK = CAPACITY - 1;
+    static final AtomicLong next = new AtomicLong();
+    static final long[] slots = new long[CAPACITY * 4];
+  }
+
+  public static void record(int method) { record(method, 0L, 0L); }
+  public static void record(int method, int a) { record(method, (long) a, 0L); }
+  public static void record(int method, int a, int b) { record(method, (long) a, (long) b); }
+  public static void record(int method, double a, double b) { record(method, Double.doubleToRawLongBits(a), Double.doubleToRawLongBits(b)); }
+
+  public static void record(int method, long a, long b) {
+    int slot = (int) (Ring.next.getAndIncrement() & Ring.MASK) << 2;
+    long[] slots = Ring.slots;
+    slots[slot] = method;
+    slots[slot + 1] = a;
+    slots[slot + 2] = b;
+  }
+
+  // Forget everything recorded so far. Don't call it while traced threads are running.
+  public static void reset() { Ring.next.set(0); }
+
+  // The number of calls recorded, including any that have been overwritten.
+  public static long recorded() { return Ring.next.get(); }
+
+  // A call to look for: the method's name and its arguments, or ANY.
+  public static final class Call {
+    final String method;
+    final Object[] arguments;
+    Call(String method, Object[] arguments) {
+      this.method = method;
+      this.arguments = arguments;
+    }
+    @Override public String toString() {
+      String list = Arrays.toString(arguments);
+      return method + " with (" + list.substring(1, list.length() - 1) + ")";
+    }
+  }
+
+  // Arguments are compared by value, so call("Adder.add(int,int)", 1, 2) matches add(1, 2).
+  public static Call call(String method, Object... arguments) { return new Call(method, arguments); }
+
+  // The number of recorded calls that match.
+  public static int count(Call call) {
+    int count = 0;
+    long end = checkedEnd();
+    int id = id(call);
+    for (long i = 0; i < end; i++) { if (matches((int) i, id, call)) { count++; } }
+    return count;
+  }
+
+  // Check that the calls were recorded in this order. Other calls may come between them.
+  public static void verifyInOrder(Call... calls) {
+    long end = checkedEnd();
+    long i = 0;
+    for (Call call : calls) {
+      int id = id(call);
+      while (i < end && !matches((int) i, id, call)) { i++; }
+      if (i == end) { throw new AssertionError("Missing invocation, in order, of " + call); }
+      i++;
+    }
+  }
+
+  // Check that exactly these calls were recorded, in this order.
+  public static void verifyExactly(Call... calls) {
+    long end = checkedEnd();
+    for (int i = 0; i < calls.length; i++) {
+      if (i == end || !matches(i, id(calls[i]), calls[i])) {
+        throw new AssertionError("Expected " + calls[i] + " as call " + i + " but found " + (i == end ? "no call" : describe(i)));
+      }
+    }
+    if (end > calls.length) { throw new AssertionError("Unexpected invocation of " + describe(calls.length)); }
+  }
+
+  private static long checkedEnd() {
+    long end = Ring.next.get();
+    if (end > Ring.CAPACITY) { throw new IllegalStateException("The trace overflowed; raise -Dfrymire.trace.capacity above " + end + "."); }
+    return end;
+  }
+
+  private static synchronized int id(Call call) {
+    int id = names.indexOf(call.method);
+    if (id < 0) { throw new IllegalArgumentException("Not a traced method: " + call.method); }
+    if (call.arguments.length != slots.get(id).length) { throw new IllegalArgumentException(call.method + " records " + slots.get(id).length + " arguments."); }
+    return id;
+  }
+
+  private static boolean matches(int slot, int id, Call call) {
+    if (Ring.slots[slot << 2] != id) { return false; }
+    for (int i = 0; i < call.arguments.length; i++) {
+      Object expected = call.arguments[i];
+      if (expected != ANY && !value(id, i, slot).equals(normalize(id, i, expected))) { return false; }
+    }
+    return true;
+  }
+
+  // The recorded argument, boxed as its slot type.
+  private static synchronized Object value(int id, int argument, int slot) {
+    long bits = Ring.slots[(slot << 2) + 1 + argument];
+    switch (slots.get(id)[argument]) {
+      case INT: return (int) bits;
+      case DOUBLE: return Double.longBitsToDouble(bits);
+      default: return bits;
+    }
+  }
+
+  // Let a verification give 1 for a double or long argument, but not 1.5 for an int.
+  private static synchronized Object normalize(int id, int argument, Object expected) {
+    if (!(expected instanceof Number)) { return expected; }
+    Number number = (Number) expected;
+    Number converted;
+    switch (slots.get(id)[argument]) {
+      case INT: converted = number.intValue(); break;
+      case DOUBLE: converted = number.doubleValue(); break;
+      default: converted = number.longValue(); break;
+    }
+    return converted.doubleValue() == number.doubleValue() ? converted : expected;
+  }
+
+  private static synchronized String describe(int slot) {
+    int id = (int) Ring.slots[slot << 2];
+    Object[] arguments = new Object[slots.get(id).length];
+    for (int i = 0; i < arguments.length; i++) { arguments[i] = value(id, i, slot); }
+    return new Call(names.get(id), arguments).toString();
+  }
+
+}
@@ -0,0 +1,97 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Total binary files of little-endian ints or doubles without reading them onto the heap.
+// The file is mapped in fixed-size chunks (so files over 2 GB take several mappings), and
+// summed in parallel on the common fork/join pool. Doubles are summed as Adder.sum() sums
+// an array, so a file and an array of the same values have the same total.
+public class MappedFileAdder {
+
+  public static final int DEFAULT_CHUNK_BYTES = 64 << 20;
+
+  private final int chunkBytes;
+
+  public MappedFileAdder() { this(DEFAULT_CHUNK_BYTES); }
+
+  // The chunk size must be a positive multiple of 8, so no element straddles two chunks.
+  public MappedFileAdder(int chunkBytes) {
+    if (chunkBytes <= 0 || chunkBytes % Double.BYTES != 0) {
+      throw new IllegalArgumentException("Chunk size must be a positive multiple of 8: " + chunkBytes);
+    }
+    this.chunkBytes = chunkBytes;
+  }
+
+  // The total of all ints in the file. It is exact, since it's accumulated as a long.
+  public long sumInts(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = checkSize(channel.size(), Integer.BYTES);
+      return IntStream.range(0, chunkCount(size)).parallel().mapToLong(chunk -> {
+        IntBuffer ints = map(channel, size, chunk).asIntBuffer();
+        long total = 0;
+        while (ints.hasRemaining()) { total += ints.get(); }
+        return total;
+      }).sum();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  // The total of all doubles in the file, summed with CompensatedSum's fixed tree over the
+  // element indices. The leaves read straight from the mappings, crossing from one chunk to
+  // the next where they must, so the result doesn't depend on the chunk size either.
+  public double sumDoubles(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = checkSize(channel.size(), Double.BYTES);
+      final DoubleBuffer[] chunks = new DoubleBuffer[chunkCount(size)];
+      for (int chunk = 0; chunk < chunks.length; chunk++) { chunks[chunk] = map(channel, size, chunk).asDoubleBuffer(); }
+      final int perChunk = chunkBytes / Double.BYTES;
+      return CompensatedSum.sum(0, size / Double.BYTES, (from, to) -> {
+        double[] acc = new double[2];
+        for (long i = from; i < to; ) {
+          DoubleBuffer doubles = chunks[(int) (i / perChunk)];
+          int start = (int) (i % perChunk);
+          int end = (int) Math.min(perChunk, start + (to - i));
+          for (int j = start; j < end; j++) { CompensatedSum.add(acc, doubles.get(j)); }
+          i += end - start;
+        }
+        return acc;
+      }, ForkJoinPool.commonPool());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static long checkSize(long size, int elementBytes) {
+    if (size % elementBytes != 0) {
+      throw new IllegalArgumentException("File size " + size + " is not a multiple of " + elementBytes + " bytes.");
+    }
+    return size;
+  }
+
+  private int chunkCount(long size) { return (int) ((size + chunkBytes - 1) / chunkBytes); }
+
+  private MappedByteBuffer map(FileChannel channel, long size, int chunk) {
+    long position = (long) chunk * chunkBytes;
+    try {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(chunkBytes, size - position));
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      return buffer;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
@@ -0,0 +1,23 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// A running integer total that many threads can feed at once. Writes land in per-thread
+// cells that are padded onto separate cache lines (LongAdder), so they don't contend on a
+// single lock or CAS target. Read the total with sum(); it is not an atomic snapshot.
+public class StripedAdder {
+
+  private final LongAdder total = new LongAdder();
+
+  public void add(int value) { total.add(value); }
+  public void add(long value) { total.add(value); }
+  public void increment() { total.increment(); }
+  public long sum() { return total.sum(); }
+  public int intSum() { return total.intValue(); }
+  public long sumThenReset() { return total.sumThenReset(); }
+  public void reset() { total.reset(); }
+  @Override public String toString() { return total.toString(); }
+
+}
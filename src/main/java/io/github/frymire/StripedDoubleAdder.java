@@ -0,0 +1,19 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.concurrent.atomic.DoubleAdder;
+
+// The floating point counterpart of StripedAdder. Since cells are combined in no particular
+// order, sum() may differ in the last bits from a sequential total.
+public class StripedDoubleAdder {
+
+  private final DoubleAdder total = new DoubleAdder();
+
+  public void add(double value) { total.add(value); }
+  public double sum() { return total.sum(); }
+  public double sumThenReset() { return total.sumThenReset(); }
+  public void reset() { total.reset(); }
+  @Override public String toString() { return total.toString(); }
+
+}
@@ -2,7 +2,48 @@
 
 package io.github.frymire;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
 // This is used in the JMockit demos.
 public class Talker {
-  public String sayHi() { return "The real talker says hi."; }    
+
+  private static final String HI = "The real talker says hi.";
+
+  // The greeting encoded once as UTF-8. Each thread keeps its own read-only view onto the
+  // same bytes for channel writes, so writing never allocates or re-encodes.
+  private static final byte[] HI_BYTES = HI.getBytes(StandardCharsets.UTF_8);
+  private static final ByteBuffer HI_BUFFER = ByteBuffer.wrap(HI_BYTES).asReadOnlyBuffer();
+  private static final ThreadLocal<ByteBuffer> HI_VIEWS = ThreadLocal.withInitial(HI_BUFFER::duplicate);
+
+  public String sayHi() { return HI; }
+
+  // The number of bytes that each of the write methods below produces.
+  public int hiLength() { return HI_BYTES.length; }
+
+  // A read-only view of the encoded greeting, positioned at zero.
+  public ByteBuffer hiBytes() { return HI_BUFFER.duplicate(); }
+
+  // Throws BufferOverflowException, leaving the target untouched, if it doesn't have room.
+  public void writeHi(ByteBuffer target) { target.put(HI_BYTES); }
+
+  public void writeHi(OutputStream out) throws IOException { out.write(HI_BYTES); }
+
+  // Blocking channels only: a channel may write part of the greeting at a time, and this
+  // keeps writing until it's all out, which on a non-blocking channel would spin. Those are
+  // refused with IllegalBlockingModeException, as Channels.newOutputStream does.
+  public void writeHi(WritableByteChannel channel) throws IOException {
+    if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+      throw new IllegalBlockingModeException();
+    }
+    ByteBuffer view = HI_VIEWS.get();
+    view.clear();
+    while (view.hasRemaining()) { channel.write(view); }
+  }
+
 }
@@ -2,6 +2,9 @@
 
 package io.github.frymire;
 
+import java.nio.BufferOverflowException;
+import java.nio.IntBuffer;
+
 // This is used in the JMockitTestClassInjection demo.
 public class TestMe {
 
@@ -18,5 +21,18 @@ public class TestMe {
   public String getName() { return name; }
   public boolean getFlag() { return flag; }
   public int add(int i, int j) { return adder.add(i, j); }
+
+  // Add a batch of operand pairs in one call, with the adder's bulk form. A subclass or a
+  // mock decides what a batch does through that method.
+  public void add(int[] i, int[] j, int[] out) { adder.add(i, j, out); }
+
+  // Add interleaved (i, j) pairs from the buffer's remaining ints, writing one sum per pair.
+  // This doesn't use the bulk form, which takes the operands in separate arrays: splitting
+  // the pairs out would copy every operand, costing about as much as the adds themselves.
+  public void add(IntBuffer pairs, IntBuffer out) {
+    if (pairs.remaining() % 2 != 0) { throw new IllegalArgumentException("Odd number of operands: " + pairs.remaining()); }
+    if (out.remaining() < pairs.remaining() / 2) { throw new BufferOverflowException(); }
+    while (pairs.hasRemaining()) { out.put(adder.add(pairs.get(), pairs.get())); }
+  }
   
 }
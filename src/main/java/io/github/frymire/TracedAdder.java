@@ -0,0 +1,83 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import static io.github.frymire.InvocationTrace.Slot.DOUBLE;
+import static io.github.frymire.InvocationTrace.Slot.INT;
+
+// An Adder that records each call in InvocationTrace, under the name of the overload that
+// was called, before doing the work. The bulk methods record the length. Use it in place of
+// an Adder wherever the calls should be traced; a plain Adder records nothing.
+public class TracedAdder extends Adder {
+
+  private static final int ADD_INT = InvocationTrace.method("Adder.add(int,int)", INT, INT);
+  private static final int ADD_DOUBLE = InvocationTrace.method("Adder.add(double,double)", DOUBLE, DOUBLE);
+  private static final int ADD_INTS = InvocationTrace.method("Adder.add(int[],int[],int[])", INT);
+  private static final int ADD_DOUBLES = InvocationTrace.method("Adder.add(double[],double[],double[])", INT);
+  private static final int ADD_INT_RANGES = InvocationTrace.method("Adder.add(int[],int,int[],int,int[],int,int)", INT);
+  private static final int ADD_DOUBLE_RANGES = InvocationTrace.method("Adder.add(double[],int,double[],int,double[],int,int)", INT);
+  private static final int ACCUMULATE_INTS = InvocationTrace.method("Adder.accumulate(int[],int[])", INT);
+  private static final int ACCUMULATE_DOUBLES = InvocationTrace.method("Adder.accumulate(double[],double[])", INT);
+  private static final int ACCUMULATE_INT_RANGES = InvocationTrace.method("Adder.accumulate(int[],int,int[],int,int)", INT);
+  private static final int ACCUMULATE_DOUBLE_RANGES = InvocationTrace.method("Adder.accumulate(double[],int,double[],int,int)", INT);
+  private static final int SUM = InvocationTrace.method("Adder.sum(double[])", INT);
+
+  public TracedAdder() {}
+  public TracedAdder(String name) { super(name); }
+
+  @Override public int add(int a, int b) {
+    InvocationTrace.record(ADD_INT, a, b);
+    return super.add(a, b);
+  }
+
+  @Override public double add(double a, double b) {
+    InvocationTrace.record(ADD_DOUBLE, a, b);
+    return super.add(a, b);
+  }
+
+  @Override public void add(int[] a, int[] b, int[] out) {
+    InvocationTrace.record(ADD_INTS, a.length);
+    super.add(a, b, out);
+  }
+
+  @Override public void add(double[] a, double[] b, double[] out) {
+    InvocationTrace.record(ADD_DOUBLES, a.length);
+    super.add(a, b, out);
+  }
+
+  @Override public void add(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length) {
+    InvocationTrace.record(ADD_INT_RANGES, length);
+    super.add(a, aOffset, b, bOffset, out, outOffset, length);
+  }
+
+  @Override public void add(double[] a, int aOffset, double[] b, int bOffset, double[] out, int outOffset, int length) {
+    InvocationTrace.record(ADD_DOUBLE_RANGES, length);
+    super.add(a, aOffset, b, bOffset, out, outOffset, length);
+  }
+
+  @Override public void accumulate(int[] acc, int[] b) {
+    InvocationTrace.record(ACCUMULATE_INTS, acc.length);
+    super.accumulate(acc, b);
+  }
+
+  @Override public void accumulate(double[] acc, double[] b) {
+    InvocationTrace.record(ACCUMULATE_DOUBLES, acc.length);
+    super.accumulate(acc, b);
+  }
+
+  @Override public void accumulate(int[] acc, int accOffset, int[] b, int bOffset, int length) {
+    InvocationTrace.record(ACCUMULATE_INT_RANGES, length);
+    super.accumulate(acc, accOffset, b, bOffset, length);
+  }
+
+  @Override public void accumulate(double[] acc, int accOffset, double[] b, int bOffset, int length) {
+    InvocationTrace.record(ACCUMULATE_DOUBLE_RANGES, length);
+    super.accumulate(acc, accOffset, b, bOffset, length);
+  }
+
+  @Override public double sum(double[] values) {
+    InvocationTrace.record(SUM, values.length);
+    return super.sum(values);
+  }
+
+}
@@ -0,0 +1,38 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+// A Talker that records each call in InvocationTrace before doing the work.
+public class TracedTalker extends Talker {
+
+  private static final int SAY_HI = InvocationTrace.method("Talker.sayHi()");
+  private static final int WRITE_HI_BUFFER = InvocationTrace.method("Talker.writeHi(ByteBuffer)");
+  private static final int WRITE_HI_STREAM = InvocationTrace.method("Talker.writeHi(OutputStream)");
+  private static final int WRITE_HI_CHANNEL = InvocationTrace.method("Talker.writeHi(WritableByteChannel)");
+
+  @Override public String sayHi() {
+    InvocationTrace.record(SAY_HI);
+    return super.sayHi();
+  }
+
+  @Override public void writeHi(ByteBuffer target) {
+    InvocationTrace.record(WRITE_HI_BUFFER);
+    super.writeHi(target);
+  }
+
+  @Override public void writeHi(OutputStream out) throws IOException {
+    InvocationTrace.record(WRITE_HI_STREAM);
+    super.writeHi(out);
+  }
+
+  @Override public void writeHi(WritableByteChannel channel) throws IOException {
+    InvocationTrace.record(WRITE_HI_CHANNEL);
+    super.writeHi(channel);
+  }
+
+}
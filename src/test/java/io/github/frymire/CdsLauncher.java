@@ -0,0 +1,279 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+// Launch TestRunner (or another main, with "--main CLASS") in a child JVM that maps the
+// classes of JUnit, Hamcrest and the JDK from a dynamic AppCDS archive instead of loading
+// and verifying them again. The first launch is a training run that writes the archive as
+// it exits; later launches reuse it. The archive is kept in target/cds under a hash of the
+// JVM and the classpath jars, so a changed classpath gets a fresh archive and the stale one
+// is removed. The remaining arguments go to the main class.
+//
+// The JVM won't archive with a non-empty directory on the classpath, so the child is
+// started from a small jar holding Bootstrap, which loads the project's class directories
+// itself. Classes from directories aren't archived anyway, so recompiling the project
+// doesn't invalidate the archive. Dynamic archives need JDK 13 or later; on older JVMs the
+// child runs without one, with a warning.
+//
+// JMockit 1.24 can't initialize on JDK 12 and later, and as it replaces JUnit's Runner
+// class, nothing at all runs with it on the classpath there. So archived runs leave the
+// JMockit jar off the child's classpath, and TestRunner's test classes that need it out.
+// A child whose main fails with a class initialization or linkage error exits with
+// CLASS_INIT_FAILED, which is reported as an error, and a training run's archive is then
+// thrown away.
+public class CdsLauncher {
+
+  static final File ARCHIVE_DIRECTORY = new File("target", "cds");
+  static final int CLASS_INIT_FAILED = 3;
+
+  public static void main(String[] args) throws Exception {
+    List<String> rest = new ArrayList<String>(Arrays.asList(args));
+    String mainClass = TestRunner.class.getName();
+    if (rest.size() >= 2 && rest.get(0).equals("--main")) {
+      mainClass = TestRunner.testClass(rest.get(1)).getName();
+      rest = rest.subList(2, rest.size());
+    }
+    System.exit(launch(mainClass, rest));
+  }
+
+  // Run the main class in a child JVM with the archive, and return its exit status.
+  static int launch(String mainClass, List<String> args) throws Exception { return launch(mainClass, args, ARCHIVE_DIRECTORY); }
+
+  static int launch(String mainClass, List<String> args, File archiveDirectory) throws Exception {
+
+    String classpath = System.getProperty("java.class.path");
+    List<String> command = new ArrayList<String>();
+    command.add(ShardCoordinator.javaExecutable());
+    File archive = null;
+    boolean training = false;
+    String mode;
+    if (featureVersion() < 13) {
+      System.err.println("Warning: CDS archives need JDK 13 or later, so " + mainClass + " runs without one on Java "
+          + System.getProperty("java.version") + ".");
+      mode = "without a CDS archive";
+      command.add("-cp");
+      command.add(classpath);
+      command.add(Bootstrap.class.getName());
+      command.add(classpath);
+      command.add("");
+    } else {
+      classpath = withoutJMockit(classpath);
+      if (mainClass.equals(TestRunner.class.getName())) {
+        args = withoutJMockitTests(args);
+        if (args == null) {
+          System.err.println("Every test class named needs JMockit, which can't run with a CDS archive.");
+          return 1;
+        }
+      }
+      List<String> jars = new ArrayList<String>();
+      List<String> directories = new ArrayList<String>();
+      for (String entry : classpath.split(File.pathSeparator)) {
+        (new File(entry).isDirectory() ? directories : jars).add(entry);
+      }
+      archiveDirectory.mkdirs();
+      jars.add(0, writeBootstrapJar(archiveDirectory).getPath());
+      String archivedPath = join(jars);
+      archive = new File(archiveDirectory, classpathHash(archivedPath) + ".jsa");
+      removeStaleArchives(archive);
+      training = !archive.isFile();
+      if (training) {
+        command.add("-XX:ArchiveClassesAtExit=" + archive.getPath());
+        mode = "as a CDS training run writing " + archive.getPath();
+      } else {
+        command.add("-XX:SharedArchiveFile=" + archive.getPath());
+        mode = "with CDS archive " + archive.getPath();
+      }
+      // Classes that can't be archived (e.g. those from directories) are expected, not news.
+      command.add("-Xlog:cds=off");
+      command.add("-Xlog:cds+dynamic=off");
+      command.add("-cp");
+      command.add(archivedPath);
+      command.add(Bootstrap.class.getName());
+      command.add(classpath);
+      command.add(join(directories));
+    }
+    command.add(mainClass);
+    for (String arg : args) { if (!arg.isEmpty()) { command.add(arg); } }
+
+    long start = System.nanoTime();
+    int status = new ProcessBuilder(command).inheritIO().start().waitFor();
+    double millis = TimingListener.millis(System.nanoTime() - start);
+    if (status == CLASS_INIT_FAILED) {
+      if (training) { archive.delete(); }
+      System.err.println(String.format("Error: %s failed to initialize its classes %s after %.0f ms%s.",
+          mainClass, mode, millis, training ? "; the archive was discarded" : ""));
+      return status;
+    }
+    System.out.println(String.format("Ran %s %s in %.0f ms%s.", mainClass, mode, millis, status == 0 ? "" : " (exit status " + status + ")"));
+    return status;
+
+  }
+
+  // The classpath without any jar that holds JMockit.
+  static String withoutJMockit(String classpath) throws IOException {
+    List<String> kept = new ArrayList<String>();
+    for (String entry : classpath.split(File.pathSeparator)) {
+      if (!isJMockitJar(new File(entry))) { kept.add(entry); }
+    }
+    return join(kept);
+  }
+
+  private static boolean isJMockitJar(File file) throws IOException {
+    if (!file.isFile()) { return false; }
+    JarFile jar = new JarFile(file);
+    try { return jar.getEntry("mockit/Mocked.class") != null; } finally { jar.close(); }
+  }
+
+  // TestRunner's arguments without the test classes that need JMockit. A suite with members
+  // that need it is replaced by its other members. Null if no test class is left.
+  static List<String> withoutJMockitTests(List<String> args) throws ClassNotFoundException, IOException {
+    RunOptions options = RunOptions.parse(args.toArray(new String[args.size()]));
+    List<String> kept = new ArrayList<String>();
+    boolean skipped = false;
+    for (Class<?> testClass : options.testClasses()) {
+      List<Class<?>> members = SuiteMembers.expand(Collections.<Class<?>>singletonList(testClass));
+      List<Class<?>> runnable = new ArrayList<Class<?>>();
+      for (Class<?> member : members) {
+        if (!needsJMockit(member)) { runnable.add(member); continue; }
+        System.out.println("Leaving out " + member.getName() + ", which needs JMockit.");
+        skipped = true;
+      }
+      if (runnable.size() == members.size()) { kept.add(testClass.getName()); continue; }
+      for (Class<?> member : runnable) { kept.add(member.getName()); }
+    }
+    if (!skipped) { return args; }
+    if (kept.isEmpty()) { return null; }
+    List<String> result = new ArrayList<String>(options.optionArgs);
+    result.addAll(kept);
+    return result;
+  }
+
+  // Whether a class's constant pool refers to anything in JMockit.
+  static boolean needsJMockit(Class<?> testClass) throws IOException {
+    String resource = testClass.getName().replace('.', '/') + ".class";
+    InputStream in = testClass.getClassLoader().getResourceAsStream(resource);
+    if (in == null) { return false; }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      byte[] buffer = new byte[8192];
+      for (int n = in.read(buffer); n > 0; n = in.read(buffer)) { bytes.write(buffer, 0, n); }
+    } finally {
+      in.close();
+    }
+    for (String name : ImpactIndex.referencedClasses(bytes.toByteArray())) {
+      if (name.startsWith("mockit.")) { return true; }
+    }
+    return false;
+  }
+
+  // Loads the project's class directories and runs the main class from them. It restores the
+  // full classpath property, so that anything the main class forks sees the usual one.
+  // Arguments: the full classpath, the directories, the main class, then its arguments. A
+  // class initialization or linkage error out of the main class exits with CLASS_INIT_FAILED.
+  public static class Bootstrap {
+    public static void main(String[] args) throws Throwable {
+      System.setProperty("java.class.path", args[0]);
+      List<URL> urls = new ArrayList<URL>();
+      for (String dir : args[1].split(File.pathSeparator)) { if (!dir.isEmpty()) { urls.add(new File(dir).toURI().toURL()); } }
+      ClassLoader loader = new URLClassLoader(urls.toArray(new URL[urls.size()]), Bootstrap.class.getClassLoader());
+      Thread.currentThread().setContextClassLoader(loader);
+      try {
+        Class.forName(args[2], true, loader).getMethod("main", String[].class)
+            .invoke(null, (Object) Arrays.copyOfRange(args, 3, args.length));
+      } catch (InvocationTargetException e) {
+        if (!(e.getCause() instanceof LinkageError)) { throw e.getCause(); }
+        e.getCause().printStackTrace();
+        System.exit(CLASS_INIT_FAILED);
+      } catch (LinkageError e) {
+        e.printStackTrace();
+        System.exit(CLASS_INIT_FAILED);
+      }
+    }
+  }
+
+  // Write Bootstrap into a jar of its own. The jar is only rewritten when its content
+  // changes, since a new modification time would invalidate the archive.
+  private static File writeBootstrapJar(File archiveDirectory) throws IOException {
+    String entryName = Bootstrap.class.getName().replace('.', '/') + ".class";
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    JarOutputStream jar = new JarOutputStream(bytes);
+    JarEntry entry = new JarEntry(entryName);
+    entry.setTime(0);
+    jar.putNextEntry(entry);
+    InputStream in = Bootstrap.class.getClassLoader().getResourceAsStream(entryName);
+    try {
+      byte[] buffer = new byte[8192];
+      for (int n = in.read(buffer); n > 0; n = in.read(buffer)) { jar.write(buffer, 0, n); }
+    } finally {
+      in.close();
+    }
+    jar.close();
+    File file = new File(archiveDirectory, "bootstrap.jar");
+    if (!file.isFile() || !Arrays.equals(Files.readAllBytes(file.toPath()), bytes.toByteArray())) {
+      Files.write(file.toPath(), bytes.toByteArray());
+    }
+    return file;
+  }
+
+  // The major Java version, from "1.8" or "17" style version strings.
+  static int featureVersion() {
+    String version = System.getProperty("java.specification.version");
+    return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+  }
+
+  // A hash of the JVM and of each classpath entry, with the size and modification time of
+  // the jars, which the JVM itself checks before it will use an archive.
+  static String classpathHash(String classpath) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      StringBuilder key = new StringBuilder(System.getProperty("java.home") + "|" + System.getProperty("java.vm.version"));
+      for (String entry : classpath.split(File.pathSeparator)) {
+        File file = new File(entry);
+        key.append('|').append(file.getAbsolutePath());
+        if (file.isFile()) { key.append(':').append(file.length()).append(':').append(file.lastModified()); }
+      }
+      StringBuilder hex = new StringBuilder();
+      for (byte b : digest.digest(key.toString().getBytes(StandardCharsets.UTF_8))) { hex.append(String.format("%02x", b)); }
+      return hex.substring(0, 16);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void removeStaleArchives(File current) {
+    File[] archives = current.getParentFile().listFiles();
+    if (archives == null) { return; }
+    for (File archive : archives) {
+      if (archive.getName().endsWith(".jsa") && !archive.equals(current)) { archive.delete(); }
+    }
+  }
+
+  private static String join(List<String> entries) {
+    StringBuilder joined = new StringBuilder();
+    for (String entry : entries) {
+      if (joined.length() > 0) { joined.append(File.pathSeparator); }
+      joined.append(entry);
+    }
+    return joined.toString();
+  }
+
+}
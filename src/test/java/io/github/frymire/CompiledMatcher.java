@@ -0,0 +1,203 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.core.AllOf;
+import org.hamcrest.core.AnyOf;
+import org.hamcrest.core.DescribedAs;
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsAnything;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.hamcrest.core.IsNot;
+import org.hamcrest.core.IsNull;
+import org.hamcrest.core.IsSame;
+
+// A Hamcrest matcher compiled for matching many items, e.g. one per row of a data set.
+// The allOf/anyOf/not/is tree is flattened into a single predicate: nested allOfs and
+// anyOfs are merged, nots are pushed down to the leaves, is() and describedAs() wrappers
+// are dropped, and anything() is folded away. Within each allOf and anyOf the cheap
+// checks (nullValue, sameInstance, instanceOf) move ahead of equalTo and ahead of
+// matchers it doesn't know, which keep their order and are called as they are. Matching
+// allocates nothing. Descriptions come from the original matcher, on failure only.
+//
+//   Matcher<Object> row = CompiledMatcher.compile(allOf(notNullValue(), instanceOf(String.class)));
+//   for (Object value : values) { assertThat(value, row); }
+public final class CompiledMatcher<T> extends BaseMatcher<T> {
+
+  private final Matcher<? super T> original;
+  private final Node program;
+
+  private CompiledMatcher(Matcher<? super T> original, Node program) {
+    this.original = original;
+    this.program = program;
+  }
+
+  public static <T> CompiledMatcher<T> compile(Matcher<? super T> matcher) {
+    return new CompiledMatcher<T>(matcher, node(matcher));
+  }
+
+  @Override public boolean matches(Object item) { return program.test(item); }
+  @Override public void describeTo(Description description) { original.describeTo(description); }
+  @Override public void describeMismatch(Object item, Description description) { original.describeMismatch(item, description); }
+
+  // The compiled predicate, e.g. "and(notNull, instanceOf(String), equalTo(Hello))".
+  public String program() { return program.toString(); }
+
+  // The kinds of node, cheapest first.
+  private enum Kind { TRUE, FALSE, NULL, NOT_NULL, SAME, NOT_SAME, INSTANCE_OF, NOT_INSTANCE_OF, EQUAL, NOT_EQUAL, MATCHER, NOT_MATCHER, AND, OR }
+
+  // One final class with a switch, rather than a class per kind, so that the calls
+  // between nodes stay monomorphic and the JIT can inline the whole tree.
+  private static final class Node {
+
+    final Kind kind;
+    final Object operand;
+    final Node[] children;
+
+    Node(Kind kind, Object operand, Node[] children) {
+      this.kind = kind;
+      this.operand = operand;
+      this.children = children;
+    }
+
+    boolean test(Object item) {
+      switch (kind) {
+        case TRUE: return true;
+        case FALSE: return false;
+        case NULL: return item == null;
+        case NOT_NULL: return item != null;
+        case SAME: return item == operand;
+        case NOT_SAME: return item != operand;
+        case INSTANCE_OF: return ((Class<?>) operand).isInstance(item);
+        case NOT_INSTANCE_OF: return !((Class<?>) operand).isInstance(item);
+        case EQUAL: return areEqual(item, operand);
+        case NOT_EQUAL: return !areEqual(item, operand);
+        case MATCHER: return ((Matcher<?>) operand).matches(item);
+        case NOT_MATCHER: return !((Matcher<?>) operand).matches(item);
+        case AND:
+          for (Node child : children) { if (!child.test(item)) { return false; } }
+          return true;
+        default:
+          for (Node child : children) { if (child.test(item)) { return true; } }
+          return false;
+      }
+    }
+
+    // EQUAL costs more for arrays, which are compared element by element.
+    int cost() {
+      if (kind == Kind.AND || kind == Kind.OR) {
+        int cost = 0;
+        for (Node child : children) { cost = Math.max(cost, child.cost()); }
+        return cost;
+      }
+      if ((kind == Kind.EQUAL || kind == Kind.NOT_EQUAL) && operand != null && operand.getClass().isArray()) { return Kind.MATCHER.ordinal(); }
+      return kind.ordinal();
+    }
+
+    Node negate() {
+      switch (kind) {
+        case AND: return combine(Kind.OR, negateAll(children));
+        case OR: return combine(Kind.AND, negateAll(children));
+        default: return new Node(Kind.values()[kind.ordinal() ^ 1], operand, null);
+      }
+    }
+
+    @Override public String toString() {
+      StringBuilder name = new StringBuilder();
+      for (String word : kind.name().toLowerCase().split("_")) {
+        name.append(name.length() == 0 ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+      }
+      switch (kind) {
+        case AND: case OR: return name.toString() + Arrays.toString(children).replace('[', '(').replace(']', ')');
+        case INSTANCE_OF: case NOT_INSTANCE_OF: return name + "(" + ((Class<?>) operand).getSimpleName() + ")";
+        case SAME: case NOT_SAME: case EQUAL: case NOT_EQUAL: case MATCHER: case NOT_MATCHER: return name + "(" + operand + ")";
+        default: return name.toString();
+      }
+    }
+
+  }
+
+  private static Node node(Matcher<?> matcher) {
+    Class<?> type = matcher.getClass();
+    try {
+      if (type == Is.class) { return node((Matcher<?>) field(Is.class, "matcher", matcher)); }
+      if (type == DescribedAs.class) { return node((Matcher<?>) field(DescribedAs.class, "matcher", matcher)); }
+      if (type == IsNot.class) { return node((Matcher<?>) field(IsNot.class, "matcher", matcher)).negate(); }
+      if (type == IsAnything.class) { return leaf(Kind.TRUE, null); }
+      if (type == IsNull.class) { return leaf(Kind.NULL, null); }
+      if (type == IsSame.class) { return leaf(Kind.SAME, field(IsSame.class, "object", matcher)); }
+      if (type == IsInstanceOf.class) { return leaf(Kind.INSTANCE_OF, field(IsInstanceOf.class, "matchableClass", matcher)); }
+      if (type == IsEqual.class) { return leaf(Kind.EQUAL, field(IsEqual.class, "expectedValue", matcher)); }
+      if (type == AllOf.class) { return combine(Kind.AND, compileAll(field(AllOf.class, "matchers", matcher))); }
+      if (type == AnyOf.class) { return combine(Kind.OR, compileAll(field(AnyOf.class.getSuperclass(), "matchers", matcher))); }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // A Hamcrest version laid out differently; call the matcher as it is.
+    }
+    return leaf(Kind.MATCHER, matcher);
+  }
+
+  private static Node leaf(Kind kind, Object operand) { return new Node(kind, operand, null); }
+
+  private static Object field(Class<?> owner, String name, Object matcher) throws ReflectiveOperationException {
+    Field field = owner.getDeclaredField(name);
+    field.setAccessible(true);
+    return field.get(matcher);
+  }
+
+  private static List<Node> compileAll(Object matchers) {
+    List<Node> nodes = new ArrayList<Node>();
+    for (Object matcher : (Iterable<?>) matchers) { nodes.add(node((Matcher<?>) matcher)); }
+    return nodes;
+  }
+
+  private static List<Node> negateAll(Node[] children) {
+    List<Node> negated = new ArrayList<Node>();
+    for (Node child : children) { negated.add(child.negate()); }
+    return negated;
+  }
+
+  // Merge nested nodes of the same kind, fold constants and order the rest by cost. The
+  // sort is stable, so matchers of equal cost keep the order they were written in.
+  private static Node combine(Kind kind, List<Node> nodes) {
+    Kind identity = kind == Kind.AND ? Kind.TRUE : Kind.FALSE;
+    Kind absorbing = kind == Kind.AND ? Kind.FALSE : Kind.TRUE;
+    List<Node> children = new ArrayList<Node>();
+    for (Node node : nodes) {
+      if (node.kind == absorbing) { return node; }
+      if (node.kind == identity) { continue; }
+      if (node.kind == kind) { children.addAll(Arrays.asList(node.children)); } else { children.add(node); }
+    }
+    if (children.isEmpty()) { return leaf(identity, null); }
+    if (children.size() == 1) { return children.get(0); }
+    Collections.sort(children, new Comparator<Node>() {
+      @Override public int compare(Node a, Node b) { return Integer.compare(a.cost(), b.cost()); }
+    });
+    return new Node(kind, null, children.toArray(new Node[children.size()]));
+  }
+
+  // Equality as IsEqual has it: arrays are equal when their elements are.
+  private static boolean areEqual(Object actual, Object expected) {
+    if (actual == null) { return expected == null; }
+    if (expected != null && actual.getClass().isArray()) {
+      if (!expected.getClass().isArray() || Array.getLength(actual) != Array.getLength(expected)) { return false; }
+      for (int i = 0; i < Array.getLength(actual); i++) {
+        if (!areEqual(Array.get(actual, i), Array.get(expected, i))) { return false; }
+      }
+      return true;
+    }
+    return actual.equals(expected);
+  }
+
+}
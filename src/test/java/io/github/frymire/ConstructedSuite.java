@@ -1,16 +1,26 @@
 
 package io.github.frymire;
 
+import junit.framework.JUnit4TestAdapter;
 import junit.framework.TestSuite;
 import junit.framework.TestResult;
 
 // A test suite is a composite of tests.
 public class ConstructedSuite {
 
+  // Add tests to the suite. JUnit 4 classes need an adapter; TestCase classes can be added
+  // directly. Exposing the suite through a static suite() method lets JUnit 4 runners (and
+  // TestRunner's scheduling) see what it contains.
+  public static TestSuite suite() {
+    TestSuite suite = new TestSuite();
+    suite.addTest(new JUnit4TestAdapter(TestAssertions.class));
+    suite.addTestSuite(TestWithSetup.class);
+    return suite;
+  }
+
   public static void main(String[] a) {
 
-    // Add tests to the suite.
-    TestSuite suite = new TestSuite(TestAssertions.class, TestWithSetup.class);
+    TestSuite suite = suite();
     System.out.println("Number of test cases = " + suite.countTestCases());
 
     // Run the suite.
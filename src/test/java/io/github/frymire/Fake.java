@@ -0,0 +1,8 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+// Implemented by the fakes that FakeProcessor generates.
+public interface Fake {
+  FakeRecorder fakeRecorder();
+}
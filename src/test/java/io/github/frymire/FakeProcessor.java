@@ -0,0 +1,226 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+// Generate the fakes asked for with GenerateFakes. A fake extends the class (or implements
+// the interface) and overrides every method it can, so that each call goes to a
+// FakeRecorder rather than to the real code. Final and static methods can't be overridden
+// and keep their real behavior. Constructors are passed through; a class without a no-arg
+// constructor also gets one that passes zeros and nulls.
+//
+// The processor and its runtime classes are test code, kept out of the main artifact. The
+// pom compiles them first, then names the processor for the rest of the test sources.
+@SupportedAnnotationTypes("io.github.frymire.GenerateFakes")
+public class FakeProcessor extends AbstractProcessor {
+
+  private final Set<String> generated = new HashSet<String>();
+
+  @Override public SourceVersion getSupportedSourceVersion() { return SourceVersion.latestSupported(); }
+
+  @Override public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+    for (TypeElement annotation : annotations) {
+      for (Element annotated : round.getElementsAnnotatedWith(annotation)) {
+        for (TypeElement faked : fakedTypes(annotated)) {
+          if (generated.add(faked.getQualifiedName().toString()) && !alreadyCompiled(faked)) { generate(faked, annotated); }
+        }
+      }
+    }
+    return true;
+  }
+
+  // An incremental build passes the fakes generated last time back in as sources.
+  private boolean alreadyCompiled(TypeElement faked) {
+    String packageName = processingEnv.getElementUtils().getPackageOf(faked).getQualifiedName().toString();
+    String name = (packageName.isEmpty() ? "" : packageName + ".") + "Fake" + faked.getSimpleName();
+    return processingEnv.getElementUtils().getTypeElement(name) != null;
+  }
+
+  // Read the classes from the annotation's mirror, since they may not be loadable here.
+  private static Set<TypeElement> fakedTypes(Element annotated) {
+    Set<TypeElement> types = new HashSet<TypeElement>();
+    for (AnnotationMirror mirror : annotated.getAnnotationMirrors()) {
+      if (!mirror.getAnnotationType().toString().equals(GenerateFakes.class.getName())) { continue; }
+      for (AnnotationValue value : mirror.getElementValues().values()) {
+        for (Object type : (List<?>) value.getValue()) {
+          types.add((TypeElement) ((DeclaredType) ((AnnotationValue) type).getValue()).asElement());
+        }
+      }
+    }
+    return types;
+  }
+
+  private void generate(TypeElement faked, Element origin) {
+
+    if (faked.getModifiers().contains(Modifier.FINAL)) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Can't fake final class " + faked, origin);
+      return;
+    }
+
+    String packageName = processingEnv.getElementUtils().getPackageOf(faked).getQualifiedName().toString();
+    String simpleName = "Fake" + faked.getSimpleName();
+    boolean isInterface = faked.getKind() == ElementKind.INTERFACE;
+
+    StringBuilder source = new StringBuilder();
+    source.append("// Generated by ").append(FakeProcessor.class.getName()).append(" from ").append(faked.getQualifiedName()).append(".\n\n");
+    if (!packageName.isEmpty()) { source.append("package ").append(packageName).append(";\n\n"); }
+    source.append("@SuppressWarnings(\"unchecked\")\n");
+    source.append("public class ").append(simpleName).append(isInterface ? " implements " : " extends ")
+        .append(faked.getQualifiedName()).append(isInterface ? ", " : " implements ").append(Fake.class.getName()).append(" {\n\n");
+    source.append("  private final ").append(FakeRecorder.class.getName()).append(" fakeRecorder = new ")
+        .append(FakeRecorder.class.getName()).append("(\"").append(faked.getSimpleName()).append("\");\n\n");
+
+    if (!isInterface) { appendConstructors(source, faked, simpleName); }
+    source.append("  @Override public ").append(FakeRecorder.class.getName()).append(" fakeRecorder() { return fakeRecorder; }\n");
+    for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(faked))) {
+      if (isFakeable(method, packageName)) { appendMethod(source, method); }
+    }
+    source.append("\n}\n");
+
+    try {
+      Writer writer = processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? simpleName : packageName + "." + simpleName, origin).openWriter();
+      try { writer.write(source.toString()); } finally { writer.close(); }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Can't write " + simpleName + ": " + e, origin);
+    }
+
+  }
+
+  private void appendConstructors(StringBuilder source, TypeElement faked, String simpleName) {
+    ExecutableElement first = null;
+    boolean hasNoArg = false;
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(faked.getEnclosedElements())) {
+      if (constructor.getModifiers().contains(Modifier.PRIVATE)) { continue; }
+      if (first == null) { first = constructor; }
+      hasNoArg |= constructor.getParameters().isEmpty();
+      source.append("  public ").append(simpleName).append('(').append(parameters(constructor)).append(')')
+          .append(throwsClause(constructor)).append(" { super(").append(arguments(constructor)).append("); }\n");
+    }
+    if (!hasNoArg && first != null && first.getThrownTypes().isEmpty()) {
+      StringBuilder defaults = new StringBuilder();
+      for (int i = 0; i < first.getParameters().size(); i++) {
+        if (i > 0) { defaults.append(", "); }
+        TypeMirror type = first.getParameters().get(i).asType();
+        defaults.append(type.getKind().isPrimitive() ? defaultValue(type) : "(" + erasure(type) + ") null");
+      }
+      source.append("  public ").append(simpleName).append("() { super(").append(defaults).append("); }\n");
+    }
+    source.append('\n');
+  }
+
+  private boolean isFakeable(ExecutableElement method, String packageName) {
+    Set<Modifier> modifiers = method.getModifiers();
+    if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.PRIVATE)) { return false; }
+    TypeElement owner = (TypeElement) method.getEnclosingElement();
+    if (owner.getQualifiedName().contentEquals(Object.class.getName())) { return false; }
+    boolean packagePrivate = !modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.PROTECTED);
+    return !packagePrivate || processingEnv.getElementUtils().getPackageOf(owner).getQualifiedName().contentEquals(packageName);
+  }
+
+  private void appendMethod(StringBuilder source, ExecutableElement method) {
+
+    TypeMirror returnType = method.getReturnType();
+    source.append("\n  @Override ").append(method.getModifiers().contains(Modifier.PROTECTED) ? "protected " : "public ");
+    if (!method.getTypeParameters().isEmpty()) {
+      source.append('<');
+      for (int i = 0; i < method.getTypeParameters().size(); i++) {
+        TypeParameterElement parameter = method.getTypeParameters().get(i);
+        if (i > 0) { source.append(", "); }
+        source.append(parameter.getSimpleName());
+        List<? extends TypeMirror> bounds = parameter.getBounds();
+        if (!bounds.isEmpty() && !bounds.get(0).toString().equals(Object.class.getName())) {
+          source.append(" extends ").append(bounds.get(0));
+          for (int b = 1; b < bounds.size(); b++) { source.append(" & ").append(bounds.get(b)); }
+        }
+      }
+      source.append("> ");
+    }
+    source.append(returnType).append(' ').append(method.getSimpleName()).append('(').append(parameters(method)).append(')')
+        .append(throwsClause(method)).append(" {\n    ");
+
+    StringBuilder call = new StringBuilder("fakeRecorder.invoke(\"").append(key(method)).append("\", ");
+    call.append(returnType.getKind() == TypeKind.VOID ? "null" : defaultValue(returnType));
+    call.append(", new Object[] {").append(arguments(method)).append("})");
+    if (returnType.getKind() == TypeKind.VOID) { source.append(call).append(";\n  }\n"); return; }
+    String cast = returnType.getKind().isPrimitive()
+        ? processingEnv.getTypeUtils().boxedClass((PrimitiveType) returnType).getQualifiedName().toString()
+        : returnType.toString();
+    source.append("return (").append(cast).append(") ").append(call).append(";\n  }\n");
+
+  }
+
+  // The method's name and erased parameter types, e.g. "add(int,int)".
+  private String key(ExecutableElement method) {
+    StringBuilder key = new StringBuilder(method.getSimpleName()).append('(');
+    for (int i = 0; i < method.getParameters().size(); i++) {
+      if (i > 0) { key.append(','); }
+      key.append(erasure(method.getParameters().get(i).asType()));
+    }
+    return key.append(')').toString();
+  }
+
+  private String erasure(TypeMirror type) { return processingEnv.getTypeUtils().erasure(type).toString(); }
+
+  private static String parameters(ExecutableElement method) {
+    StringBuilder parameters = new StringBuilder();
+    for (int i = 0; i < method.getParameters().size(); i++) {
+      if (i > 0) { parameters.append(", "); }
+      String type = method.getParameters().get(i).asType().toString();
+      if (method.isVarArgs() && i == method.getParameters().size() - 1) { type = type.substring(0, type.length() - 2) + "..."; }
+      parameters.append(type).append(" p").append(i);
+    }
+    return parameters.toString();
+  }
+
+  private static String arguments(ExecutableElement method) {
+    StringBuilder arguments = new StringBuilder();
+    for (int i = 0; i < method.getParameters().size(); i++) { arguments.append(i > 0 ? ", p" : "p").append(i); }
+    return arguments.toString();
+  }
+
+  private static String throwsClause(ExecutableElement method) {
+    if (method.getThrownTypes().isEmpty()) { return ""; }
+    StringBuilder clause = new StringBuilder(" throws ");
+    for (int i = 0; i < method.getThrownTypes().size(); i++) { clause.append(i > 0 ? ", " : "").append(method.getThrownTypes().get(i)); }
+    return clause.toString();
+  }
+
+  private static String defaultValue(TypeMirror type) {
+    switch (type.getKind()) {
+      case BOOLEAN: return "false";
+      case BYTE: return "(byte) 0";
+      case SHORT: return "(short) 0";
+      case CHAR: return "'\\0'";
+      case INT: return "0";
+      case LONG: return "0L";
+      case FLOAT: return "0f";
+      case DOUBLE: return "0d";
+      default: return "null";
+    }
+  }
+
+}
@@ -0,0 +1,369 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Records the calls made on a generated fake (see GenerateFakes), answers them with the
+// results recorded for them, and checks them afterwards, in the manner of JMockit's
+// Expectations and Verifications but without instrumenting any class:
+//
+//   FakeAdder adder = new FakeAdder();
+//   expectations(() -> { adder.add(anyInt(), anyInt()); result(10); });
+//   assertEquals(10, adder.add(1, 1));
+//   verifications(() -> { adder.add(1, 1); times(1); });
+//
+// Calls on fakes inside an expectations block record a result instead of running, and
+// those inside a verifications block are matched against the calls made so far. A call
+// with no recorded result returns zero, false or null. A result for a method that returns
+// a primitive is widened to its type as Java would, so result(10) suits a double. Matchers
+// such as anyInt() must be used for every argument of a call or for none.
+public final class FakeRecorder {
+
+  // The calls made on fakes in an expectations or verifications block. Checked exceptions
+  // that the calls declare needn't be caught.
+  public interface Block {
+    void run() throws Throwable;
+  }
+
+  private enum Mode { RECORD, VERIFY }
+
+  // Matches one argument of a recorded or verified call.
+  private interface ArgumentMatcher {
+    boolean matches(Object argument);
+  }
+
+  private static final ArgumentMatcher ANY = new ArgumentMatcher() {
+    @Override public boolean matches(Object argument) { return true; }
+    @Override public String toString() { return "any"; }
+  };
+
+  // The block that the current thread is running, if any.
+  private static final class State {
+    final Mode mode;
+    final List<ArgumentMatcher> matchers = new ArrayList<ArgumentMatcher>();
+    final List<Check> checks = new ArrayList<Check>();
+    Expectation lastExpectation;
+    State(Mode mode) { this.mode = mode; }
+  }
+
+  private static final ThreadLocal<State> STATE = new ThreadLocal<State>();
+
+  // Orders calls across all fakes, for in-order verification.
+  private static final AtomicLong SEQUENCE = new AtomicLong();
+
+  private static final class Invocation {
+    final String method;
+    final Object[] arguments;
+    final long sequence;
+    Invocation(String method, Object[] arguments, long sequence) {
+      this.method = method;
+      this.arguments = arguments;
+      this.sequence = sequence;
+    }
+  }
+
+  private static class Call {
+    final FakeRecorder recorder;
+    final String method;
+    final ArgumentMatcher[] matchers;
+    Call(FakeRecorder recorder, String method, ArgumentMatcher[] matchers) {
+      this.recorder = recorder;
+      this.method = method;
+      this.matchers = matchers;
+    }
+    boolean matches(String calledMethod, Object[] arguments) {
+      if (!method.equals(calledMethod)) { return false; }
+      for (int i = 0; i < matchers.length; i++) { if (!matchers[i].matches(arguments[i])) { return false; } }
+      return true;
+    }
+    @Override public String toString() { return recorder.name + "." + describe(method, matchers); }
+  }
+
+  private static final class Expectation extends Call {
+    final Object defaultResult;
+    final List<Object> results = new ArrayList<Object>();
+    int next;
+    Expectation(FakeRecorder recorder, String method, ArgumentMatcher[] matchers, Object defaultResult) {
+      super(recorder, method, matchers);
+      this.defaultResult = defaultResult;
+    }
+    // Give the results in turn, repeating the last one.
+    synchronized Object nextResult() { return results.get(Math.min(next++, results.size() - 1)); }
+  }
+
+  private static final class Check extends Call {
+    int minTimes = 1;
+    int maxTimes = Integer.MAX_VALUE;
+    Check(FakeRecorder recorder, String method, ArgumentMatcher[] matchers) { super(recorder, method, matchers); }
+    // The matching calls made after one sequence number and before another.
+    List<Invocation> invocations(long after, long before) {
+      List<Invocation> matching = new ArrayList<Invocation>();
+      for (Invocation invocation : recorder.snapshot()) {
+        if (invocation.sequence > after && invocation.sequence < before && matches(invocation.method, invocation.arguments)) { matching.add(invocation); }
+      }
+      return matching;
+    }
+  }
+
+  private final String name;
+  private final List<Invocation> invocations = new ArrayList<Invocation>();
+  private final List<Expectation> expectations = new ArrayList<Expectation>();
+
+  public FakeRecorder(String name) { this.name = name; }
+
+  // Called by a fake for each of its methods. The method is named with its parameter types,
+  // as in "add(int,int)".
+  public Object invoke(String method, Object defaultResult, Object[] arguments) {
+
+    State state = STATE.get();
+    if (state == null) { return replay(method, defaultResult, arguments); }
+
+    ArgumentMatcher[] matchers = takeMatchers(state, method, arguments);
+    if (state.mode == Mode.RECORD) {
+      Expectation expectation = new Expectation(this, method, matchers, defaultResult);
+      synchronized (this) { expectations.add(expectation); }
+      state.lastExpectation = expectation;
+    } else {
+      state.checks.add(new Check(this, method, matchers));
+    }
+    return defaultResult;
+
+  }
+
+  // Log the call and answer it from the latest matching expectation that has a result.
+  private Object replay(String method, Object defaultResult, Object[] arguments) {
+    Expectation match = null;
+    synchronized (this) {
+      invocations.add(new Invocation(method, arguments, SEQUENCE.incrementAndGet()));
+      for (int i = expectations.size() - 1; i >= 0 && match == null; i--) {
+        Expectation expectation = expectations.get(i);
+        if (!expectation.results.isEmpty() && expectation.matches(method, arguments)) { match = expectation; }
+      }
+    }
+    if (match == null) { return defaultResult; }
+    Object result = match.nextResult();
+    if (result instanceof Throwable) { throw FakeRecorder.<RuntimeException>sneaky((Throwable) result); }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends Throwable> T sneaky(Throwable t) throws T { throw (T) t; }
+
+  // The number of calls made on the fake so far.
+  public synchronized int invocationCount() { return invocations.size(); }
+
+  // Blocks.
+
+  // Record results for the calls made on fakes in the block, with result() or returns().
+  public static void expectations(Block block) { run(new State(Mode.RECORD), block); }
+
+  // Check that each call made on fakes in the block happened, once or more by default.
+  public static void verifications(Block block) { verify(block, false, false); }
+
+  // As verifications(), but the calls must also have happened in the order given. Other
+  // calls may come between them.
+  public static void verificationsInOrder(Block block) { verify(block, true, false); }
+
+  // As verifications(), but every call on the fakes named in the block, or in scope, must
+  // be covered. An empty block with a scope checks that the fakes were never called.
+  public static void fullVerifications(Block block, Fake... scope) { verify(block, false, true, scope); }
+
+  public static void fullVerificationsInOrder(Block block, Fake... scope) { verify(block, true, true, scope); }
+
+  private static State run(State state, Block block) {
+    if (STATE.get() != null) { throw new IllegalStateException("Expectations and verifications can't be nested."); }
+    STATE.set(state);
+    try {
+      block.run();
+    } catch (Throwable e) {
+      throw FakeRecorder.<RuntimeException>sneaky(e);
+    } finally {
+      STATE.remove();
+    }
+    if (!state.matchers.isEmpty()) { throw new IllegalStateException("Argument matchers were used outside a call on a fake."); }
+    return state;
+  }
+
+  private static void verify(Block block, boolean inOrder, boolean full, Fake... scope) {
+
+    List<Check> checks = run(new State(Mode.VERIFY), block).checks;
+    Set<Invocation> covered = Collections.newSetFromMap(new IdentityHashMap<Invocation, Boolean>());
+    long cursor = 0;
+    for (int i = 0; i < checks.size(); i++) {
+      Check check = checks.get(i);
+      List<Invocation> matching = check.invocations(inOrder ? cursor : 0, Long.MAX_VALUE);
+      if (inOrder) {
+        // Count the calls from the previous check's last one up to the next check's first.
+        long from = matching.isEmpty() ? cursor : matching.get(0).sequence;
+        long until = Long.MAX_VALUE;
+        if (i + 1 < checks.size()) {
+          List<Invocation> next = checks.get(i + 1).invocations(from, Long.MAX_VALUE);
+          if (!next.isEmpty()) { until = next.get(0).sequence; }
+        }
+        matching = check.invocations(cursor, until);
+        if (matching.size() < check.minTimes || matching.size() > check.maxTimes) {
+          throw new AssertionError("Expected " + times(check) + " invocations, in order, of " + check + " but found " + matching.size());
+        }
+        if (!matching.isEmpty()) { cursor = matching.get(matching.size() - 1).sequence; }
+      } else if (matching.size() < check.minTimes || matching.size() > check.maxTimes) {
+        throw new AssertionError("Expected " + times(check) + " invocations of " + check + " but found " + matching.size());
+      }
+      covered.addAll(matching);
+    }
+
+    if (!full) { return; }
+    Set<FakeRecorder> recorders = new LinkedHashSet<FakeRecorder>();
+    for (Check check : checks) { recorders.add(check.recorder); }
+    for (Fake fake : scope) { recorders.add(fake.fakeRecorder()); }
+    for (FakeRecorder recorder : recorders) {
+      for (Invocation invocation : recorder.snapshot()) {
+        if (!covered.contains(invocation)) {
+          throw new AssertionError("Unexpected invocation of " + recorder.name + "." + describe(invocation.method, invocation.arguments));
+        }
+      }
+    }
+
+  }
+
+  private synchronized List<Invocation> snapshot() { return new ArrayList<Invocation>(invocations); }
+
+  // Results, for the last call in an expectations block.
+
+  public static void result(Object value) {
+    Expectation expectation = lastExpectation();
+    expectation.results.add(fit(expectation, value));
+  }
+
+  // Give these results to successive calls, then keep giving the last one.
+  public static void returns(Object... values) {
+    Expectation expectation = lastExpectation();
+    for (Object value : values) { expectation.results.add(fit(expectation, value)); }
+  }
+
+  // The primitive types, each of which widens to those after it.
+  private static final List<Class<?>> WIDENING = Arrays.<Class<?>>asList(
+      Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class);
+
+  // Widen a result to the primitive type that the method returns, which its default result
+  // has, or reject it now rather than with a ClassCastException in the fake.
+  private static Object fit(Expectation expectation, Object value) {
+    Object type = expectation.defaultResult;
+    if (type == null || value instanceof Throwable || (value != null && value.getClass() == type.getClass())) { return value; }
+    int from = value == null ? -1 : WIDENING.indexOf(value.getClass()), to = WIDENING.indexOf(type.getClass());
+    if (from < 0 || to < from) {
+      throw new IllegalArgumentException("The result " + format(value) + " can't be returned by " + expectation.method);
+    }
+    Number number = (Number) value;
+    switch (to) {
+      case 1: return number.shortValue();
+      case 2: return number.intValue();
+      case 3: return number.longValue();
+      case 4: return number.floatValue();
+      default: return number.doubleValue();
+    }
+  }
+
+  private static Expectation lastExpectation() {
+    State state = STATE.get();
+    if (state == null || state.mode != Mode.RECORD || state.lastExpectation == null) {
+      throw new IllegalStateException("A result must follow a call on a fake in an expectations block.");
+    }
+    return state.lastExpectation;
+  }
+
+  // Counts, for the last call in a verifications block.
+
+  public static void times(int n) { minTimes(n); maxTimes(n); }
+  public static void minTimes(int n) { lastCheck().minTimes = n; }
+  public static void maxTimes(int n) { lastCheck().maxTimes = n; }
+
+  private static Check lastCheck() {
+    State state = STATE.get();
+    if (state == null || state.mode != Mode.VERIFY || state.checks.isEmpty()) {
+      throw new IllegalStateException("A count must follow a call on a fake in a verifications block.");
+    }
+    return state.checks.get(state.checks.size() - 1);
+  }
+
+  private static String times(Check check) {
+    if (check.minTimes == check.maxTimes) { return Integer.toString(check.minTimes); }
+    return check.maxTimes == Integer.MAX_VALUE ? "at least " + check.minTimes : check.minTimes + " to " + check.maxTimes;
+  }
+
+  // Argument matchers, for calls in a block.
+
+  public static int anyInt() { addMatcher(ANY); return 0; }
+  public static long anyLong() { addMatcher(ANY); return 0; }
+  public static double anyDouble() { addMatcher(ANY); return 0; }
+  public static boolean anyBoolean() { addMatcher(ANY); return false; }
+  public static <T> T any() { addMatcher(ANY); return null; }
+
+  public static int eq(int value) { addMatcher(equalTo(value)); return value; }
+  public static long eq(long value) { addMatcher(equalTo(value)); return value; }
+  public static double eq(double value) { addMatcher(equalTo(value)); return value; }
+  public static <T> T eq(T value) { addMatcher(equalTo(value)); return value; }
+
+  // Match a double within a tolerance, as JMockit's withEqual(value, delta).
+  public static double eq(final double value, final double delta) {
+    addMatcher(new ArgumentMatcher() {
+      @Override public boolean matches(Object argument) {
+        return argument instanceof Number && Math.abs(((Number) argument).doubleValue() - value) <= delta;
+      }
+      @Override public String toString() { return value + " +/- " + delta; }
+    });
+    return value;
+  }
+
+  private static void addMatcher(ArgumentMatcher matcher) {
+    State state = STATE.get();
+    if (state == null) { throw new IllegalStateException("Argument matchers can only be used in expectations and verifications."); }
+    state.matchers.add(matcher);
+  }
+
+  private static ArgumentMatcher equalTo(final Object expected) {
+    return new ArgumentMatcher() {
+      @Override public boolean matches(Object argument) { return Objects.deepEquals(expected, argument); }
+      @Override public String toString() { return format(expected); }
+    };
+  }
+
+  private static ArgumentMatcher[] takeMatchers(State state, String method, Object[] arguments) {
+    ArgumentMatcher[] matchers = new ArgumentMatcher[arguments.length];
+    if (state.matchers.isEmpty()) {
+      for (int i = 0; i < arguments.length; i++) { matchers[i] = equalTo(arguments[i]); }
+      return matchers;
+    }
+    if (state.matchers.size() != arguments.length) {
+      state.matchers.clear();
+      throw new IllegalStateException("Use argument matchers for every argument of " + method + " or for none.");
+    }
+    state.matchers.toArray(matchers);
+    state.matchers.clear();
+    return matchers;
+  }
+
+  // E.g. "add(1, 2)" for the method "add(int,int)".
+  private static String describe(String method, Object[] arguments) {
+    StringBuilder description = new StringBuilder(method.substring(0, method.indexOf('('))).append('(');
+    for (int i = 0; i < arguments.length; i++) {
+      if (i > 0) { description.append(", "); }
+      description.append(arguments[i] instanceof ArgumentMatcher ? arguments[i] : format(arguments[i]));
+    }
+    return description.append(')').toString();
+  }
+
+  private static String format(Object value) {
+    if (value instanceof String) { return '"' + (String) value + '"'; }
+    return value != null && value.getClass().isArray() ? Arrays.deepToString(new Object[] {value}).replaceAll("^\\[|\\]$", "") : String.valueOf(value);
+  }
+
+}
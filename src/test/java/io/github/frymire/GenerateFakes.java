@@ -0,0 +1,17 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Ask FakeProcessor to generate a fake of each listed class at compile time, named
+// Fake<Class> in the class's own package. Put it on any class in the test sources, e.g.
+// @GenerateFakes({Adder.class, Talker.class}), and drive the fakes with FakeRecorder.
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateFakes {
+  Class<?>[] value();
+}
@@ -0,0 +1,206 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+
+// Remember which compiled classes each test class depends on, and a content hash of each of
+// those class files, so that a later run can skip the tests that nothing has changed under.
+// The dependencies are read from the class files' constant pools (every class, field and
+// method type a class refers to), followed transitively through the project's own classes.
+// That's the set of project classes a test can load without reflection.
+public class ImpactIndex {
+
+  // A class in a field or method descriptor or a generic signature, e.g. Ljava/util/List<.
+  private static final Pattern DESCRIBED_CLASS = Pattern.compile("L([\\p{L}_$][\\p{L}\\p{N}_$]*(?:/[\\p{L}_$][\\p{L}\\p{N}_$]*)*)[;<]");
+
+  private final Properties entries = new Properties();
+
+  // The project's class files as they are now: binary name -> hash and references.
+  private final Map<String, String> hashes = new HashMap<String, String>();
+  private final Map<String, Set<String>> references = new HashMap<String, Set<String>>();
+
+  // Load the index in the file (if any) and scan the directories holding the compiled
+  // production and test classes.
+  public static ImpactIndex load(File file) throws IOException {
+    ImpactIndex index = new ImpactIndex();
+    if (file.isFile()) {
+      InputStream in = new FileInputStream(file);
+      try { index.entries.load(in); } finally { in.close(); }
+    }
+    for (File dir : classDirectories()) { index.scan(dir, dir); }
+    return index;
+  }
+
+  public void save(File file) throws IOException {
+    File parent = file.getAbsoluteFile().getParentFile();
+    if (parent != null) { parent.mkdirs(); }
+    OutputStream out = new FileOutputStream(file);
+    try { entries.store(out, "Test class dependencies and class file hashes"); } finally { out.close(); }
+  }
+
+  // The test classes that must run: those never indexed, and those for which a class they
+  // depend on was added, removed or changed since they last passed.
+  public List<Class<?>> affected(List<Class<?>> testClasses) {
+    List<Class<?>> affected = new ArrayList<Class<?>>();
+    for (Class<?> testClass : testClasses) {
+      String recorded = entries.getProperty("deps." + testClass.getName());
+      Set<String> dependencies = dependencies(testClass.getName());
+      if (recorded == null || !new TreeSet<String>(Arrays.asList(recorded.split(","))).equals(dependencies)) {
+        affected.add(testClass);
+        continue;
+      }
+      for (String dependency : dependencies) {
+        if (!hashes.get(dependency).equals(entries.getProperty("hash." + dependency))) {
+          affected.add(testClass);
+          break;
+        }
+      }
+    }
+    return affected;
+  }
+
+  // Record the test classes that ran without failures against the current class files.
+  public void update(List<Class<?>> testClasses, Result result) {
+    Set<String> failed = new HashSet<String>();
+    for (Failure failure : result.getFailures()) { addClassNames(failure.getDescription(), failed); }
+    for (Class<?> testClass : testClasses) {
+      Set<String> dependencies = dependencies(testClass.getName());
+      if (dependencies.isEmpty() || !Collections.disjoint(dependencies, failed)) {
+        entries.remove("deps." + testClass.getName());
+        continue;
+      }
+      StringBuilder list = new StringBuilder();
+      for (String dependency : dependencies) {
+        if (list.length() > 0) { list.append(','); }
+        list.append(dependency);
+        entries.setProperty("hash." + dependency, hashes.get(dependency));
+      }
+      entries.setProperty("deps." + testClass.getName(), list.toString());
+    }
+  }
+
+  // A failure may describe several classes, as that of a shard that crashed does.
+  private static void addClassNames(Description description, Set<String> names) {
+    if (description.getClassName() != null) { names.add(description.getClassName()); }
+    for (Description child : description.getChildren()) { addClassNames(child, names); }
+  }
+
+  // The named class and every project class reachable from its references.
+  Set<String> dependencies(String className) {
+    Set<String> seen = new TreeSet<String>();
+    Deque<String> queue = new ArrayDeque<String>();
+    if (hashes.containsKey(className)) { queue.add(className); }
+    while (!queue.isEmpty()) {
+      String next = queue.poll();
+      if (!seen.add(next)) { continue; }
+      for (String reference : references.get(next)) {
+        if (hashes.containsKey(reference) && !seen.contains(reference)) { queue.add(reference); }
+      }
+    }
+    return seen;
+  }
+
+  private void scan(File root, File dir) throws IOException {
+    File[] files = dir.listFiles();
+    if (files == null) { return; }
+    for (File file : files) {
+      if (file.isDirectory()) { scan(root, file); continue; }
+      if (!file.getName().endsWith(".class")) { continue; }
+      String path = root.toURI().relativize(file.toURI()).getPath();
+      String name = path.substring(0, path.length() - ".class".length()).replace('/', '.');
+      byte[] bytes = Files.readAllBytes(file.toPath());
+      hashes.put(name, sha256(bytes));
+      references.put(name, referencedClasses(bytes));
+    }
+  }
+
+  // The binary names of all classes mentioned anywhere in a class file's constant pool,
+  // either as class entries or inside field and method descriptors and signatures.
+  static Set<String> referencedClasses(byte[] classFile) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+    if (in.readInt() != 0xCAFEBABE) { throw new IOException("Not a class file."); }
+    in.readUnsignedShort();
+    in.readUnsignedShort();
+    int count = in.readUnsignedShort();
+    String[] utf8 = new String[count];
+    List<Integer> classNames = new ArrayList<Integer>();
+    for (int i = 1; i < count; i++) {
+      int tag = in.readUnsignedByte();
+      switch (tag) {
+        case 1: utf8[i] = in.readUTF(); break;
+        case 7: classNames.add(in.readUnsignedShort()); break;
+        case 8: case 16: case 19: case 20: in.skipBytes(2); break;
+        case 15: in.skipBytes(3); break;
+        case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18: in.skipBytes(4); break;
+        case 5: case 6: in.skipBytes(8); i++; break;
+        default: throw new IOException("Unknown constant pool tag " + tag);
+      }
+    }
+    Set<String> names = new HashSet<String>();
+    // A class entry names a class directly, or an array type by its descriptor.
+    for (int index : classNames) {
+      if (!utf8[index].startsWith("[")) { names.add(utf8[index].replace('/', '.')); }
+    }
+    for (String text : utf8) {
+      if (text == null) { continue; }
+      Matcher matcher = DESCRIBED_CLASS.matcher(text);
+      while (matcher.find()) { names.add(matcher.group(1).replace('/', '.')); }
+    }
+    return names;
+  }
+
+  private static String sha256(byte[] bytes) {
+    try {
+      StringBuilder hex = new StringBuilder();
+      for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) { hex.append(String.format("%02x", b)); }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // The directories that the production classes and the test classes were loaded from.
+  private static Set<File> classDirectories() {
+    Set<File> dirs = new HashSet<File>();
+    for (Class<?> anchor : new Class<?>[] {Adder.class, TestRunner.class}) {
+      try {
+        File location = new File(anchor.getProtectionDomain().getCodeSource().getLocation().toURI());
+        if (location.isDirectory()) { dirs.add(location); }
+      } catch (URISyntaxException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return dirs;
+  }
+
+}
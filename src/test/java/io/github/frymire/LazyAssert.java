@@ -0,0 +1,56 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.function.Supplier;
+
+import org.hamcrest.Matcher;
+import org.junit.Assert;
+
+// Assertions for tight loops whose passing path allocates nothing. A message is a String.format
+// template with its arguments, or a Supplier, and is only formatted once the check has failed.
+// Primitive arguments have their own overloads, so they aren't boxed up front. The other
+// checks hand a failure over to JUnit's Assert, so messages and matcher descriptions read the
+// same and are only built then. A Supplier lambda that captures variables is itself allocated
+// on every call unless the JIT can prove it doesn't escape, so prefer templates in hot loops.
+public final class LazyAssert {
+
+  private LazyAssert() {}
+
+  public static void check(boolean condition) { if (!condition) { Assert.fail(); } }
+  public static void check(boolean condition, String message) { if (!condition) { Assert.fail(message); } }
+  public static void check(boolean condition, Supplier<String> message) { if (!condition) { Assert.fail(message.get()); } }
+
+  public static void check(boolean condition, String template, int arg) { if (!condition) { fail(template, arg); } }
+  public static void check(boolean condition, String template, long arg) { if (!condition) { fail(template, arg); } }
+  public static void check(boolean condition, String template, double arg) { if (!condition) { fail(template, arg); } }
+  public static void check(boolean condition, String template, Object arg) { if (!condition) { fail(template, arg); } }
+  public static void check(boolean condition, String template, int arg1, int arg2) { if (!condition) { fail(template, arg1, arg2); } }
+  public static void check(boolean condition, String template, long arg1, long arg2) { if (!condition) { fail(template, arg1, arg2); } }
+  public static void check(boolean condition, String template, Object arg1, Object arg2) { if (!condition) { fail(template, arg1, arg2); } }
+
+  // As Assert.assertEquals(Object, Object), with the same messages.
+  public static void equal(Object expected, Object actual) {
+    if (expected == actual || (expected != null && expected.equals(actual))) { return; }
+    Assert.assertEquals(expected, actual);
+  }
+
+  public static void equal(String message, Object expected, Object actual) {
+    if (expected == actual || (expected != null && expected.equals(actual))) { return; }
+    Assert.assertEquals(message, expected, actual);
+  }
+
+  public static void same(Object expected, Object actual) { if (expected != actual) { Assert.assertSame(expected, actual); } }
+  public static void notNull(Object object) { if (object == null) { Assert.fail(); } }
+
+  public static <T> void that(T actual, Matcher<? super T> matcher) {
+    if (!matcher.matches(actual)) { Assert.assertThat(actual, matcher); }
+  }
+
+  public static <T> void that(String reason, T actual, Matcher<? super T> matcher) {
+    if (!matcher.matches(actual)) { Assert.assertThat(reason, actual, matcher); }
+  }
+
+  private static void fail(String template, Object... args) { throw new AssertionError(String.format(template, args)); }
+
+}
@@ -0,0 +1,38 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+
+// A Result made by adding up the results of separate runs, such as forked shards. The run
+// time is set separately, since the runs overlap in time.
+public class MergedResult extends Result {
+
+  private static final long serialVersionUID = 1L;
+
+  private int runCount;
+  private int ignoreCount;
+  private long runTime;
+  private final List<Failure> failures = new ArrayList<Failure>();
+
+  public synchronized void add(Result result) {
+    runCount += result.getRunCount();
+    ignoreCount += result.getIgnoreCount();
+    failures.addAll(result.getFailures());
+  }
+
+  public synchronized void addFailure(Failure failure) { failures.add(failure); }
+  public synchronized void setRunTime(long runTime) { this.runTime = runTime; }
+
+  @Override public synchronized int getRunCount() { return runCount; }
+  @Override public synchronized int getFailureCount() { return failures.size(); }
+  @Override public synchronized long getRunTime() { return runTime; }
+  @Override public synchronized List<Failure> getFailures() { return new ArrayList<Failure>(failures); }
+  @Override public synchronized int getIgnoreCount() { return ignoreCount; }
+  @Override public boolean wasSuccessful() { return getFailureCount() == 0; }
+
+}
@@ -0,0 +1,142 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+
+// Run test classes on a fixed pool of worker threads and merge them into one Result. Each
+// class's console output is buffered and printed in one piece when the class finishes, so
+// output from different classes never interleaves.
+public class ParallelRunner {
+
+  private final int threads;
+  private final List<RunListener> listeners = new ArrayList<RunListener>();
+
+  public ParallelRunner(int threads) {
+    if (threads < 1) { throw new IllegalArgumentException("Need at least one thread: " + threads); }
+    this.threads = threads;
+  }
+
+  // Listeners must be thread-safe, since they hear from every worker.
+  public ParallelRunner addListener(RunListener listener) { listeners.add(listener); return this; }
+
+  public Result run(Class<?>... classes) throws InterruptedException {
+
+    Result result = new Result();
+    RunNotifier notifier = new RunNotifier();
+    notifier.addListener(result.createListener());
+    for (RunListener listener : listeners) { notifier.addListener(listener); }
+
+    PrintStream originalOut = System.out;
+    PrintStream originalErr = System.err;
+    System.setOut(new PrintStream(new RoutingOutputStream(originalOut), true));
+    System.setErr(new PrintStream(new RoutingOutputStream(originalErr), true));
+
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+
+      notifier.fireTestRunStarted(Description.createSuiteDescription("Parallel run"));
+      List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (Class<?> testClass : classes) { futures.add(pool.submit(new ClassTask(testClass, notifier, originalOut))); }
+      for (Future<?> future : futures) { future.get(); }
+      notifier.fireTestRunFinished(result);
+
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Worker failed outside of a test.", e.getCause());
+    } finally {
+      pool.shutdownNow();
+      System.setOut(originalOut);
+      System.setErr(originalErr);
+    }
+
+    return result;
+
+  }
+
+  // Run one class with its output captured, then write the output out in one block.
+  private static class ClassTask implements Runnable {
+
+    private final Class<?> testClass;
+    private final RunNotifier notifier;
+    private final PrintStream out;
+
+    ClassTask(Class<?> testClass, RunNotifier notifier, PrintStream out) {
+      this.testClass = testClass;
+      this.notifier = notifier;
+      this.out = out;
+    }
+
+    @Override public void run() {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      RoutingOutputStream.capture.set(buffer);
+      try {
+        Request.aClass(testClass).getRunner().run(notifier);
+      } finally {
+        RoutingOutputStream.capture.remove();
+        synchronized (out) {
+          out.print(buffer.toString());
+          out.flush();
+        }
+      }
+    }
+
+  }
+
+  // Run a task with the calling thread's capture buffer, on whatever thread runs it. Pooled
+  // threads only inherit the buffer of the class that happened to create them, and keep it
+  // when they're reused, so tasks handed to a shared pool have to carry it themselves.
+  static <T> Callable<T> capturing(final Callable<T> task) {
+    final ByteArrayOutputStream buffer = RoutingOutputStream.capture.get();
+    return new Callable<T>() {
+      @Override public T call() throws Exception {
+        if (buffer == null) { RoutingOutputStream.capture.remove(); } else { RoutingOutputStream.capture.set(buffer); }
+        try {
+          return task.call();
+        } finally {
+          RoutingOutputStream.capture.remove();
+        }
+      }
+    };
+  }
+
+  // Send writes to the calling thread's capture buffer when it has one. The buffer is
+  // inherited, so threads that a test starts itself (e.g. for timeouts) are captured too.
+  private static class RoutingOutputStream extends OutputStream {
+
+    static final InheritableThreadLocal<ByteArrayOutputStream> capture = new InheritableThreadLocal<ByteArrayOutputStream>();
+
+    private final OutputStream target;
+
+    RoutingOutputStream(OutputStream target) { this.target = target; }
+
+    @Override public void write(int b) throws IOException {
+      ByteArrayOutputStream buffer = capture.get();
+      if (buffer == null) { target.write(b); } else { buffer.write(b); }
+    }
+
+    @Override public void write(byte[] b, int off, int len) throws IOException {
+      ByteArrayOutputStream buffer = capture.get();
+      if (buffer == null) { target.write(b, off, len); } else { buffer.write(b, off, len); }
+    }
+
+    @Override public void flush() throws IOException { if (capture.get() == null) { target.flush(); } }
+
+  }
+
+}
@@ -0,0 +1,140 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.lang.reflect.Array;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+// Equality checks for primitives, primitive arrays and buffers that never box. JUnit's
+// assertArrayEquals reads each element through reflection as a boxed object, which makes
+// large arrays slow. Here the arrays are first compared in bulk with Arrays.equals, and the
+// buffers with their own equals, which run vectorized on Java 9 and up. Only when those say
+// the contents differ is there an element by element scan to report the first difference,
+// in the same words as JUnit.
+public final class PrimitiveAssert {
+
+  private PrimitiveAssert() {}
+
+  public static void equal(int expected, int actual) { if (expected != actual) { notEqual(expected, actual); } }
+  public static void equal(long expected, long actual) { if (expected != actual) { notEqual(expected, actual); } }
+
+  // As Assert.assertEquals(double, double, double): NaN equals NaN, and otherwise the values
+  // may differ by up to delta.
+  public static void equal(double expected, double actual, double delta) {
+    if (different(expected, actual, delta)) { notEqual(expected, actual); }
+  }
+
+  public static void equal(byte[] expected, byte[] actual) {
+    if (Arrays.equals(expected, actual)) { return; }
+    sameLength(expected, actual);
+    for (int i = 0; ; i++) { if (expected[i] != actual[i]) { differed("arrays", i, expected[i], actual[i]); } }
+  }
+
+  public static void equal(int[] expected, int[] actual) {
+    if (Arrays.equals(expected, actual)) { return; }
+    sameLength(expected, actual);
+    for (int i = 0; ; i++) { if (expected[i] != actual[i]) { differed("arrays", i, expected[i], actual[i]); } }
+  }
+
+  public static void equal(long[] expected, long[] actual) {
+    if (Arrays.equals(expected, actual)) { return; }
+    sameLength(expected, actual);
+    for (int i = 0; ; i++) { if (expected[i] != actual[i]) { differed("arrays", i, expected[i], actual[i]); } }
+  }
+
+  // Exactly equal, as Arrays.equals has it: NaN equals NaN, but 0.0 doesn't equal -0.0.
+  public static void equal(double[] expected, double[] actual) {
+    if (Arrays.equals(expected, actual)) { return; }
+    sameLength(expected, actual);
+    for (int i = 0; ; i++) {
+      if (Double.doubleToLongBits(expected[i]) != Double.doubleToLongBits(actual[i])) { differed("arrays", i, expected[i], actual[i]); }
+    }
+  }
+
+  // Each element within delta, as Assert.assertArrayEquals(double[], double[], double). Arrays
+  // that are exactly equal, as they often are, skip the scan.
+  public static void equal(double[] expected, double[] actual, double delta) {
+    if (Arrays.equals(expected, actual)) { return; }
+    sameLength(expected, actual);
+    for (int i = 0; i < expected.length; i++) {
+      if (different(expected[i], actual[i], delta)) { differed("arrays", i, expected[i], actual[i]); }
+    }
+  }
+
+  // Buffers are compared over their remaining elements, as their equals methods do, and
+  // their positions are left alone. Two nulls are equal, as two null arrays are.
+  public static void equal(ByteBuffer expected, ByteBuffer actual) {
+    if (expected == actual) { return; }
+    sameRemaining(expected, actual);
+    if (expected.equals(actual)) { return; }
+    for (int i = 0, e = expected.position(), a = actual.position(); ; i++) {
+      if (expected.get(e + i) != actual.get(a + i)) { differed("buffers", i, expected.get(e + i), actual.get(a + i)); }
+    }
+  }
+
+  public static void equal(IntBuffer expected, IntBuffer actual) {
+    if (expected == actual) { return; }
+    sameRemaining(expected, actual);
+    if (expected.equals(actual)) { return; }
+    for (int i = 0, e = expected.position(), a = actual.position(); ; i++) {
+      if (expected.get(e + i) != actual.get(a + i)) { differed("buffers", i, expected.get(e + i), actual.get(a + i)); }
+    }
+  }
+
+  public static void equal(LongBuffer expected, LongBuffer actual) {
+    if (expected == actual) { return; }
+    sameRemaining(expected, actual);
+    if (expected.equals(actual)) { return; }
+    for (int i = 0, e = expected.position(), a = actual.position(); ; i++) {
+      if (expected.get(e + i) != actual.get(a + i)) { differed("buffers", i, expected.get(e + i), actual.get(a + i)); }
+    }
+  }
+
+  // As DoubleBuffer.equals has it: NaN equals NaN, and 0.0 equals -0.0.
+  public static void equal(DoubleBuffer expected, DoubleBuffer actual) {
+    if (expected == actual) { return; }
+    sameRemaining(expected, actual);
+    if (expected.equals(actual)) { return; }
+    for (int i = 0, e = expected.position(), a = actual.position(); ; i++) {
+      double x = expected.get(e + i), y = actual.get(a + i);
+      if (x != y && !(Double.isNaN(x) && Double.isNaN(y))) { differed("buffers", i, x, y); }
+    }
+  }
+
+  // The tolerance test first: it's usually enough, and Double.compare branches unpredictably
+  // on values that differ in their last bits.
+  private static boolean different(double expected, double actual, double delta) {
+    return !(Math.abs(expected - actual) <= delta) && Double.compare(expected, actual) != 0;
+  }
+
+  private static void sameLength(Object expected, Object actual) {
+    present(expected, actual, "array");
+    int e = Array.getLength(expected), a = Array.getLength(actual);
+    if (e != a) { throw new AssertionError("array lengths differed, expected.length=" + e + " actual.length=" + a); }
+  }
+
+  private static void sameRemaining(Buffer expected, Buffer actual) {
+    present(expected, actual, "buffer");
+    int e = expected.remaining(), a = actual.remaining();
+    if (e != a) { throw new AssertionError("buffer lengths differed, expected.remaining=" + e + " actual.remaining=" + a); }
+  }
+
+  private static void present(Object expected, Object actual, String what) {
+    if (expected == null) { throw new AssertionError("expected " + what + " was null"); }
+    if (actual == null) { throw new AssertionError("actual " + what + " was null"); }
+  }
+
+  private static void notEqual(Object expected, Object actual) {
+    throw new AssertionError("expected:<" + expected + "> but was:<" + actual + ">");
+  }
+
+  private static void differed(String what, int index, Object expected, Object actual) {
+    throw new AssertionError(what + " first differed at element [" + index + "]; expected:<" + expected + "> but was:<" + actual + ">");
+  }
+
+}
@@ -0,0 +1,87 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// The command line options that TestRunner accepts.
+class RunOptions {
+
+  int threads = 1;
+  int slowest = 0;
+  String timingsFile = null;
+  int shardIndex = 0;
+  int shardCount = 1;
+  int forks = 0;
+  long shardTimeoutSeconds = 600;
+  String resultFile = null;
+  File historyFile = new File("target", "test-timings.properties");
+  boolean changedOnly = false;
+  // The impact index is only kept when asked for, since building it reads every class file.
+  File impactFile = null;
+  List<String> classNames = new ArrayList<String>();
+  // Everything other than the class names, with the options' values, in order.
+  List<String> optionArgs = new ArrayList<String>();
+
+  static RunOptions parse(String[] args) {
+    RunOptions options = new RunOptions();
+    for (int i = 0; i < args.length; i++) {
+      int start = i;
+      if (args[i].equals("--threads")) { options.threads = Integer.parseInt(args[++i]); }
+      else if (args[i].equals("--timings")) { options.timingsFile = args[++i]; }
+      else if (args[i].equals("--slowest")) { options.slowest = Integer.parseInt(args[++i]); }
+      else if (args[i].equals("--shard")) { options.parseShard(args[++i]); }
+      else if (args[i].equals("--forks")) { options.forks = Integer.parseInt(args[++i]); }
+      else if (args[i].equals("--shard-timeout")) { options.shardTimeoutSeconds = Long.parseLong(args[++i]); }
+      else if (args[i].equals("--result-file")) { options.resultFile = args[++i]; }
+      else if (args[i].equals("--history")) { options.historyFile = new File(args[++i]); }
+      else if (args[i].equals("--changed")) { options.changedOnly = true; }
+      else if (args[i].equals("--impact-index")) { options.impactFile = new File(args[++i]); }
+      else if (args[i].startsWith("--")) { throw new IllegalArgumentException("Unknown option: " + args[i]); }
+      else { options.classNames.add(args[i]); continue; }
+      options.optionArgs.addAll(Arrays.asList(args).subList(start, i + 1));
+    }
+    if (options.changedOnly && options.impactFile == null) { options.impactFile = new File("target", "test-impact.properties"); }
+    return options;
+  }
+
+  // Shards are written "i/n", with i counting from zero.
+  private void parseShard(String shard) {
+    String[] parts = shard.split("/");
+    if (parts.length != 2) { throw new IllegalArgumentException("Expected --shard i/n, got " + shard); }
+    shardIndex = Integer.parseInt(parts[0]);
+    shardCount = Integer.parseInt(parts[1]);
+    if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+      throw new IllegalArgumentException("Shard index out of range: " + shard);
+    }
+  }
+
+  // The test classes named on the command line, or the demo defaults.
+  List<Class<?>> testClasses() throws ClassNotFoundException {
+    List<Class<?>> classes = new ArrayList<Class<?>>();
+    for (String name : classNames) { classes.add(TestRunner.testClass(name)); }
+    if (classes.isEmpty()) {
+      classes.add(TestAssertions.class);
+      classes.add(AnnotatedSuite.class);
+    }
+    return classes;
+  }
+
+  // The arguments for a child JVM that runs the given classes, which make up one shard.
+  List<String> childArgs(List<Class<?>> classes, String childResultFile, String childHistoryFile) {
+    List<String> args = new ArrayList<String>();
+    args.add("--threads");
+    args.add(Integer.toString(threads));
+    args.add("--result-file");
+    args.add(childResultFile);
+    args.add("--history");
+    args.add(childHistoryFile);
+    // No --impact-index: the coordinator updates it once the shards are done.
+    for (Class<?> testClass : classes) { args.add(testClass.getName()); }
+    return args;
+  }
+
+}
@@ -0,0 +1,187 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+
+// Split a run across child JVMs. Suites are split into their member classes, which the
+// coordinator deals out by duration when there is a timing history and by name hash when
+// there isn't.
+// Each child runs the classes of one shard and serializes its Result to a file, while its
+// console output is streamed back with a "[shard i]" prefix. A child that crashes or
+// overruns the timeout is killed and reported as a failure of that shard only, covering
+// all of its classes; the other shards carry on. The children's timings are merged back into the
+// history, and collected per test for "--timings" and "--slowest".
+public class ShardCoordinator {
+
+  private final RunOptions options;
+  private final TimingHistory history;
+  private final TimingListener timings = new TimingListener();
+
+  ShardCoordinator(RunOptions options, TimingHistory history) {
+    this.options = options;
+    this.history = history;
+  }
+
+  // The coordinator's split of the classes, with suites expanded, into shardCount shards: by
+  // duration when there is a timing history, or else by name hash. It is made once, here, and
+  // each child is given its shard's classes.
+  static List<List<Class<?>>> shards(List<Class<?>> classes, int shardCount, TimingHistory history) {
+    if (history.isEmpty()) { return hashShards(classes, shardCount); }
+    return history.partition(SuiteMembers.expand(classes), shardCount);
+  }
+
+  // Split the classes, with suites expanded, by a stable hash of their names. Separately
+  // launched "--shard i/n" runs use this, as it depends on nothing they might see differently.
+  static List<List<Class<?>>> hashShards(List<Class<?>> classes, int shardCount) {
+    List<Class<?>> members = SuiteMembers.expand(classes);
+    List<List<Class<?>>> shards = new ArrayList<List<Class<?>>>();
+    for (int i = 0; i < shardCount; i++) { shards.add(new ArrayList<Class<?>>()); }
+    for (Class<?> testClass : members) {
+      shards.get(Math.floorMod(testClass.getName().hashCode(), shardCount)).add(testClass);
+    }
+    return shards;
+  }
+
+  // A child writes its result and per-test timings for the coordinator to pick up.
+  static void writeResult(Result result, TimingListener timings, String file) throws IOException {
+    ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file));
+    try {
+      out.writeObject(result);
+      out.writeObject(timings.getTimings());
+    } finally {
+      out.close();
+    }
+  }
+
+  // The timings of every test run by the shards so far.
+  TimingListener timings() { return timings; }
+
+  public Result run(List<Class<?>> testClasses) throws InterruptedException {
+
+    long start = System.currentTimeMillis();
+    List<List<Class<?>>> classes = shards(testClasses, options.forks, history);
+    ExecutorService pool = Executors.newFixedThreadPool(options.forks);
+    List<Future<Result>> shards = new ArrayList<Future<Result>>();
+    for (int i = 0; i < options.forks; i++) {
+      final int shard = i;
+      final List<Class<?>> shardClasses = classes.get(i);
+      if (shardClasses.isEmpty()) { shards.add(null); continue; }
+      shards.add(pool.submit(new Callable<Result>() {
+        @Override public Result call() throws Exception { return runShard(shard, shardClasses); }
+      }));
+    }
+
+    MergedResult merged = new MergedResult();
+    for (int i = 0; i < shards.size(); i++) {
+      if (shards.get(i) == null) { continue; }
+      try { merged.add(shards.get(i).get()); }
+      catch (ExecutionException e) { merged.addFailure(shardFailure(i, options.forks, classes.get(i), "could not be run: " + e.getCause())); }
+    }
+    pool.shutdown();
+    merged.setRunTime(System.currentTimeMillis() - start);
+    return merged;
+
+  }
+
+  private Result runShard(int shard, List<Class<?>> classes) throws IOException, InterruptedException, ClassNotFoundException {
+
+    File resultFile = File.createTempFile("shard" + shard + "-", ".result");
+    File historyFile = File.createTempFile("shard" + shard + "-", ".properties");
+    try {
+
+      history.save(historyFile);
+
+      List<String> command = new ArrayList<String>();
+      command.add(javaExecutable());
+      command.add("-cp");
+      command.add(System.getProperty("java.class.path"));
+      command.add(TestRunner.class.getName());
+      command.addAll(options.childArgs(classes, resultFile.getPath(), historyFile.getPath()));
+
+      Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+      Thread pump = pump(process, "[shard " + shard + "] ", System.out);
+
+      MergedResult result = new MergedResult();
+      if (!process.waitFor(options.shardTimeoutSeconds, TimeUnit.SECONDS)) {
+        process.destroyForcibly();
+        result.addFailure(shardFailure(shard, options.forks, classes, "timed out after " + options.shardTimeoutSeconds + " s"));
+        return result;
+      }
+      pump.join(TimeUnit.SECONDS.toMillis(5));
+      if (resultFile.length() == 0) {
+        result.addFailure(shardFailure(shard, options.forks, classes, "exited with status " + process.exitValue() + " and no result"));
+        return result;
+      }
+
+      TimingHistory shardHistory = TimingHistory.load(historyFile);
+      synchronized (history) { history.merge(shardHistory); }
+
+      ObjectInputStream in = new ObjectInputStream(new FileInputStream(resultFile));
+      try {
+        Result shardResult = (Result) in.readObject();
+        @SuppressWarnings("unchecked")
+        List<TimingListener.Timing> shardTimings = (List<TimingListener.Timing>) in.readObject();
+        timings.addAll(shardTimings);
+        return shardResult;
+      } finally {
+        in.close();
+      }
+
+    } finally {
+      resultFile.delete();
+      historyFile.delete();
+    }
+
+  }
+
+  // The failure of a whole shard, described as a suite of its classes so that none of them
+  // counts as having passed.
+  static Failure shardFailure(int shard, int shardCount, List<Class<?>> classes, String message) {
+    Description description = Description.createSuiteDescription("shard " + shard + "/" + shardCount);
+    for (Class<?> testClass : classes) { description.addChild(Description.createSuiteDescription(testClass)); }
+    return new Failure(description, new IllegalStateException("Shard " + shard + " " + message));
+  }
+
+  // Copy the child's output line by line, so lines from different shards stay whole.
+  private static Thread pump(final Process process, final String prefix, final PrintStream out) {
+    Thread thread = new Thread(new Runnable() {
+      @Override public void run() {
+        try {
+          BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()));
+          for (String line = in.readLine(); line != null; line = in.readLine()) { out.println(prefix + line); }
+        } catch (IOException e) {
+          out.println(prefix + "output lost: " + e);
+        }
+      }
+    });
+    thread.setDaemon(true);
+    thread.start();
+    return thread;
+  }
+
+  static String javaExecutable() {
+    return System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+  }
+
+}
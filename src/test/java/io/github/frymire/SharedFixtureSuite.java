@@ -0,0 +1,57 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// A suite whose classes share one expensive fixture. Each class asks for the store as a
+// class rule, and the suite's scope keeps it from the first class that builds it until the
+// suite ends, when it's closed. Run on their own, the classes would each build their own.
+@RunWith(Suite.class)
+@Suite.SuiteClasses({SharedFixtureSuite.Writes.class, SharedFixtureSuite.Reads.class})
+public class SharedFixtureSuite {
+
+  @ClassRule public static TestRule scope = SharedFixtures.suiteScope();
+
+  // Stands in for something slow to set up, such as a database.
+  public static class Store implements AutoCloseable {
+    static final AtomicInteger built = new AtomicInteger();
+    static final AtomicInteger closed = new AtomicInteger();
+    final Map<String, String> data = new ConcurrentHashMap<String, String>();
+    volatile boolean open = true;
+    Store() { built.incrementAndGet(); }
+    @Override public void close() {
+      open = false;
+      closed.incrementAndGet();
+    }
+  }
+
+  public static class Writes {
+    @ClassRule public static SharedFixtures.Fixture<Store> store = SharedFixtures.fixture("store", Store::new);
+    @Test public void put() {
+      assertTrue(store.get().open);
+      store.get().data.put("key", "value");
+    }
+  }
+
+  // Sees what Writes put, since it's the same store.
+  public static class Reads {
+    @ClassRule public static SharedFixtures.Fixture<Store> store = SharedFixtures.fixture("store", Store::new);
+    @Test public void get() {
+      assertTrue(store.get().open);
+      assertEquals("value", store.get().data.get("key"));
+    }
+  }
+
+}
@@ -0,0 +1,148 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+// A registry of expensive fixtures that test classes share instead of each building their
+// own in @BeforeClass. A fixture is built lazily by the first class that asks for it and is
+// reference counted. Normally it's closed (if AutoCloseable) as soon as the last class using
+// it finishes. A suite with a suiteScope() rule also holds a reference to each fixture that
+// its member classes use, so those are kept for its next members and closed when it ends.
+//
+//   @ClassRule public static SharedFixtures.Fixture<Db> db = SharedFixtures.fixture("db", Db::new);
+//
+// Fixtures from fixture() are shared by all threads, so they must be thread-safe. Ones from
+// perThread() are shared only among classes that run on the same thread.
+public class SharedFixtures {
+
+  private static final Object lock = new Object();
+  private static final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+  // The suite scopes open on each thread, outermost first. Suites run their member classes
+  // on their own thread, so that's where a member's fixtures are taken.
+  private static final ThreadLocal<Deque<Set<String>>> scopes = ThreadLocal.withInitial(ArrayDeque::new);
+
+  private SharedFixtures() {}
+
+  private static class Entry {
+    int references;
+    boolean built;
+    Object value;
+  }
+
+  public static <T> Fixture<T> fixture(String name, Supplier<T> factory) { return new Fixture<T>(name, factory, false); }
+  public static <T> Fixture<T> perThread(String name, Supplier<T> factory) { return new Fixture<T>(name, factory, true); }
+
+  // A class rule that keeps a fixture for the duration of the test class.
+  public static class Fixture<T> extends ExternalResource {
+
+    private final String name;
+    private final Supplier<T> factory;
+    private final boolean perThread;
+    private volatile String key;
+    private volatile T value;
+
+    Fixture(String name, Supplier<T> factory, boolean perThread) {
+      this.name = name;
+      this.factory = factory;
+      this.perThread = perThread;
+    }
+
+    public T get() {
+      if (key == null) { throw new IllegalStateException("Fixture " + name + " is only available while its class runs."); }
+      return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override protected void before() {
+      String k = perThread ? name + "@" + Thread.currentThread().getId() : name;
+      value = (T) acquire(k, factory);
+      key = k;
+    }
+
+    @Override protected void after() {
+      String k = key;
+      key = null;
+      value = null;
+      release(k);
+    }
+
+  }
+
+  // A class rule for a suite, which keeps the fixtures its member classes use alive between
+  // them. The outermost open scope holds one reference to each, until the suite ends.
+  public static TestRule suiteScope() {
+    return new TestRule() {
+      @Override public Statement apply(final Statement base, Description description) {
+        return new Statement() {
+          @Override public void evaluate() throws Throwable {
+            Deque<Set<String>> open = scopes.get();
+            Set<String> held = new HashSet<String>();
+            open.addLast(held);
+            try {
+              base.evaluate();
+            } finally {
+              open.removeLast();
+              for (String key : held) { release(key); }
+            }
+          }
+        };
+      }
+    };
+  }
+
+  private static Object acquire(String key, Supplier<?> factory) {
+    Entry entry;
+    Set<String> scope = scopes.get().peekFirst();
+    synchronized (lock) {
+      entry = entries.get(key);
+      if (entry == null) { entries.put(key, entry = new Entry()); }
+      entry.references++;
+      if (scope != null && scope.add(key)) { entry.references++; }
+    }
+    // Build outside the registry lock, so that one slow fixture doesn't hold up the others.
+    try {
+      synchronized (entry) {
+        if (!entry.built) {
+          entry.value = factory.get();
+          entry.built = true;
+        }
+        return entry.value;
+      }
+    } catch (RuntimeException e) {
+      release(key);
+      throw e;
+    }
+  }
+
+  private static void release(String key) {
+    Entry idle = null;
+    synchronized (lock) {
+      Entry entry = entries.get(key);
+      if (--entry.references == 0) { idle = entries.remove(key); }
+    }
+    if (idle != null) { close(idle); }
+  }
+
+  private static void close(Entry entry) {
+    synchronized (entry) {
+      if (entry.value instanceof AutoCloseable) {
+        try { ((AutoCloseable) entry.value).close(); }
+        catch (Exception e) { throw new IllegalStateException("Could not close a shared fixture.", e); }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,306 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.BaseStream;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.internal.runners.statements.RunAfters;
+import org.junit.internal.runners.statements.RunBefores;
+import org.junit.rules.RunRules;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.Filterable;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runner.notification.StoppedByUserException;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.Parameterized.Parameters;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestClass;
+
+// A Parameterized runner that pulls its parameters lazily. The @Parameters method may return
+// an Iterator, an Iterable, a Stream (e.g. Files.lines() over a data file)
+// or an array. Each parameter set is turned into a runner, run and dropped before the next
+// one is read, so memory stays flat however many there are. Since the cases aren't known in
+// advance, the class is described without children and each case is reported as it runs.
+// IDEs therefore can't list the cases up front. A filter (e.g. Request.filterWith, or an
+// IDE running one case) is applied to each case as it's read, and cases with no tests left
+// are skipped; a filter that matches no case at all fails the run rather than pass it empty.
+// Each parameter is passed to the test's constructor; an Object[] is spread over several
+// constructor arguments. Annotate the class with @Concurrency to run cases side by side.
+public class StreamingParameterized extends Runner implements Filterable {
+
+  // Run up to this many cases at once, or one per processor if the value is 0. The cases must
+  // not share mutable state. Their results are still reported in parameter order, with the
+  // times they took where they ran, and only a small window of cases is in flight, so memory
+  // stays flat. A request to stop reaches the cases in flight.
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target(ElementType.TYPE)
+  public @interface Concurrency {
+    int value() default 0;
+  }
+
+  private final TestClass testClass;
+  private final FrameworkMethod parametersMethod;
+  // The scan and validation of the test class that this runner's cases share, so they're
+  // done once per runner rather than once per case, and go when the runner does.
+  private final CaseRunner.Shared shared;
+  private final List<Filter> filters = new ArrayList<Filter>();
+  private boolean anyCaseMatched;
+
+  public StreamingParameterized(Class<?> klass) throws InitializationError {
+    testClass = new TestClass(klass);
+    parametersMethod = parametersMethod(testClass);
+    shared = new CaseRunner.Shared(testClass);
+  }
+
+  private static FrameworkMethod parametersMethod(TestClass testClass) throws InitializationError {
+    for (FrameworkMethod method : testClass.getAnnotatedMethods(Parameters.class)) {
+      if (method.isStatic() && method.isPublic()) { return method; }
+    }
+    throw new InitializationError("No public static @Parameters method on class " + testClass.getName());
+  }
+
+  @Override public Description getDescription() {
+    return Description.createSuiteDescription(testClass.getName(), testClass.getAnnotations());
+  }
+
+  @Override public void filter(Filter filter) { filters.add(filter); }
+
+  // Run the cases between the class's @BeforeClass and @AfterClass methods and inside its
+  // class rules, once for the whole class as Parameterized does.
+  @Override public void run(final RunNotifier notifier) {
+    Statement statement = new Statement() {
+      @Override public void evaluate() throws Throwable { runCases(notifier); }
+    };
+    statement = new RunBefores(statement, testClass.getAnnotatedMethods(BeforeClass.class), null);
+    statement = new RunAfters(statement, testClass.getAnnotatedMethods(AfterClass.class), null);
+    List<TestRule> classRules = new ArrayList<TestRule>(testClass.getAnnotatedMethodValues(null, ClassRule.class, TestRule.class));
+    classRules.addAll(testClass.getAnnotatedFieldValues(null, ClassRule.class, TestRule.class));
+    statement = new RunRules(statement, classRules, getDescription());
+    try {
+      statement.evaluate();
+    } catch (StoppedByUserException e) {
+      throw e;
+    } catch (Throwable e) {
+      notifier.fireTestFailure(new Failure(getDescription(), e));
+    }
+  }
+
+  private void runCases(RunNotifier notifier) throws Throwable {
+    anyCaseMatched = false;
+    Object source = parametersMethod.invokeExplosively(null);
+    try {
+      Iterator<?> parameters = iterator(source);
+      String pattern = parametersMethod.getAnnotation(Parameters.class).name();
+      int concurrency = concurrency();
+      if (concurrency > 1) {
+        runConcurrently(parameters, pattern, concurrency, notifier);
+      } else {
+        for (int index = 0; parameters.hasNext(); index++) {
+          Object[] arguments = arguments(parameters.next());
+          Runner runner = caseRunner(arguments, name(pattern, index, arguments));
+          if (runner != null) { runner.run(notifier); }
+        }
+      }
+    } finally {
+      if (source instanceof AutoCloseable) { ((AutoCloseable) source).close(); }
+    }
+    if (!filters.isEmpty() && !anyCaseMatched) {
+      List<String> described = new ArrayList<String>();
+      for (Filter filter : filters) { described.add(filter.describe()); }
+      throw new IllegalArgumentException("No case of " + testClass.getName() + " matches " + String.join(", ", described));
+    }
+  }
+
+  private int concurrency() {
+    Concurrency annotation = testClass.getJavaClass().getAnnotation(Concurrency.class);
+    if (annotation == null) { return 1; }
+    return annotation.value() > 0 ? annotation.value() : Runtime.getRuntime().availableProcessors();
+  }
+
+  // Run cases on a pool, recording each one's notifications and replaying them in order.
+  // Reading parameters stops while the oldest case is unfinished and the window is full. The
+  // replay is where a request to stop shows up, and it's passed on to the cases in flight.
+  private void runConcurrently(Iterator<?> parameters, String pattern, int concurrency, RunNotifier notifier)
+      throws Throwable {
+    ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+    Deque<RecordedCase> window = new ArrayDeque<RecordedCase>();
+    try {
+      for (int index = 0; parameters.hasNext(); index++) {
+        Object[] arguments = arguments(parameters.next());
+        Runner runner = caseRunner(arguments, name(pattern, index, arguments));
+        if (runner == null) { continue; }
+        RecordedCase recorded = new RecordedCase(runner);
+        recorded.events = pool.submit(recorded::run);
+        window.add(recorded);
+        if (window.size() >= 2 * concurrency) { replay(window, notifier); }
+      }
+      while (!window.isEmpty()) { replay(window, notifier); }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static void replay(Deque<RecordedCase> window, RunNotifier notifier) throws Throwable {
+    try {
+      for (Consumer<RunNotifier> event : window.poll().events.get()) { event.accept(notifier); }
+    } catch (ExecutionException e) {
+      throw e.getCause();
+    } catch (StoppedByUserException e) {
+      for (RecordedCase recorded : window) { recorded.recorder.pleaseStop(); }
+      throw e;
+    }
+  }
+
+  // One case run on a pool thread, with its notifications kept to be replayed later. Each
+  // test's wall and CPU time are measured here, on the thread that runs it, and handed to
+  // TimingListener when the test's finish is replayed.
+  private static final class RecordedCase {
+
+    final Runner runner;
+    final RunNotifier recorder = new RunNotifier();
+    Future<List<Consumer<RunNotifier>>> events;
+
+    RecordedCase(Runner runner) { this.runner = runner; }
+
+    List<Consumer<RunNotifier>> run() {
+      final List<Consumer<RunNotifier>> events = new ArrayList<Consumer<RunNotifier>>();
+      final Map<Description, long[]> started = new HashMap<Description, long[]>();
+      recorder.addListener(new RunListener() {
+        @Override public void testStarted(Description description) {
+          started.put(description, new long[] {System.nanoTime(), TimingListener.cpuTime()});
+          events.add(n -> n.fireTestStarted(description));
+        }
+        @Override public void testFinished(Description description) {
+          long[] start = started.remove(description);
+          if (start == null) {
+            events.add(n -> n.fireTestFinished(description));
+            return;
+          }
+          long wallNanos = System.nanoTime() - start[0], cpuNanos = TimingListener.cpuTime() - start[1];
+          events.add(n -> TimingListener.measuredElsewhere(wallNanos, cpuNanos, () -> n.fireTestFinished(description)));
+        }
+        @Override public void testFailure(Failure failure) { events.add(n -> n.fireTestFailure(failure)); }
+        @Override public void testAssumptionFailure(Failure failure) { events.add(n -> n.fireTestAssumptionFailed(failure)); }
+        @Override public void testIgnored(Description description) { events.add(n -> n.fireTestIgnored(description)); }
+      });
+      try {
+        runner.run(recorder);
+      } catch (StoppedByUserException e) {
+        // The run was stopped while this case was in flight; what it did so far is replayed.
+      }
+      return events;
+    }
+
+  }
+
+  // The runner for a single parameter set, or null if the filters leave it no tests.
+  Runner caseRunner(Object[] arguments, String name) throws InitializationError {
+    CaseRunner runner = CaseRunner.create(shared, arguments, name);
+    try {
+      for (Filter filter : filters) { filter.apply(runner); }
+    } catch (NoTestsRemainException e) {
+      return null;
+    }
+    anyCaseMatched = true;
+    return runner;
+  }
+
+  static Iterator<?> iterator(Object source) {
+    if (source instanceof Iterator) { return (Iterator<?>) source; }
+    if (source instanceof Iterable) { return ((Iterable<?>) source).iterator(); }
+    if (source instanceof BaseStream) { return ((BaseStream<?, ?>) source).iterator(); }
+    if (source instanceof Object[]) { return Arrays.asList((Object[]) source).iterator(); }
+    throw new IllegalArgumentException("@Parameters must return an Iterator, Iterable, Stream or array, not " + source);
+  }
+
+  static Object[] arguments(Object parameter) {
+    return parameter instanceof Object[] ? (Object[]) parameter : new Object[] {parameter};
+  }
+
+  // Name a case as Parameterized does, e.g. "[{index}: {0}]" with the default "{index}".
+  static String name(String pattern, int index, Object[] arguments) {
+    return "[" + MessageFormat.format(pattern.replace("{index}", Integer.toString(index)), arguments) + "]";
+  }
+
+  // Runs every test method for one parameter set, without the class-level setup. The scan of
+  // the test class and its validation happen once per StreamingParameterized, not per case.
+  static class CaseRunner extends BlockJUnit4ClassRunner {
+
+    static final class Shared {
+      final TestClass testClass;
+      boolean validated;
+      Shared(TestClass testClass) { this.testClass = testClass; }
+    }
+
+    // BlockJUnit4ClassRunner scans and validates the class in its constructor, before this
+    // class's fields are set, so the shared state is handed over on the constructing thread.
+    private static final ThreadLocal<Shared> constructing = new ThreadLocal<Shared>();
+
+    private final Object[] arguments;
+    private final String name;
+
+    private CaseRunner(Shared shared, Object[] arguments, String name) throws InitializationError {
+      super(shared.testClass.getJavaClass());
+      this.arguments = arguments;
+      this.name = name;
+    }
+
+    static CaseRunner create(Shared shared, Object[] arguments, String name) throws InitializationError {
+      constructing.set(shared);
+      try {
+        return new CaseRunner(shared, arguments, name);
+      } finally {
+        constructing.remove();
+      }
+    }
+
+    @Override protected TestClass createTestClass(Class<?> klass) { return constructing.get().testClass; }
+
+    @Override protected void collectInitializationErrors(List<Throwable> errors) {
+      Shared shared = constructing.get();
+      if (!shared.validated) {
+        shared.validated = true;
+        super.collectInitializationErrors(errors);
+      }
+    }
+
+    // The constructor takes the parameters, so it needn't be a no-arg one.
+    @Override protected void validateZeroArgConstructor(List<Throwable> errors) {}
+
+    @Override public Object createTest() throws Exception { return getTestClass().getOnlyConstructor().newInstance(arguments); }
+    @Override protected String getName() { return name; }
+    @Override protected String testName(FrameworkMethod method) { return method.getName() + name; }
+    @Override protected Statement classBlock(RunNotifier notifier) { return childrenInvoker(notifier); }
+
+  }
+
+}
@@ -0,0 +1,90 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.JUnit4TestAdapter;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.junit.runners.Suite;
+
+// Flatten suites into the test classes they run, so that the classes can be scheduled on
+// their own. Both annotated suites (@Suite.SuiteClasses) and constructed JUnit 3 suites (a
+// static suite() method) are expanded, recursively. A constructed suite holding a test
+// that can't be traced back to a class is kept whole.
+public class SuiteMembers {
+
+  private SuiteMembers() {}
+
+  public static List<Class<?>> expand(List<Class<?>> classes) {
+    Set<Class<?>> members = new LinkedHashSet<Class<?>>();
+    for (Class<?> testClass : classes) { expandInto(testClass, members); }
+    return new ArrayList<Class<?>>(members);
+  }
+
+  private static void expandInto(Class<?> testClass, Set<Class<?>> members) {
+
+    Suite.SuiteClasses annotation = testClass.getAnnotation(Suite.SuiteClasses.class);
+    if (annotation != null) {
+      for (Class<?> member : annotation.value()) { expandInto(member, members); }
+      return;
+    }
+
+    Test suite = constructedSuite(testClass);
+    if (suite instanceof TestSuite) {
+      List<Class<?>> suiteMembers = new ArrayList<Class<?>>();
+      if (collect((TestSuite) suite, suiteMembers)) {
+        for (Class<?> member : suiteMembers) { expandInto(member, members); }
+        return;
+      }
+    }
+
+    members.add(testClass);
+
+  }
+
+  // The result of a class's public static suite() method, or null if it has none.
+  private static Test constructedSuite(Class<?> testClass) {
+    try {
+      Method method = testClass.getMethod("suite");
+      if (!Modifier.isStatic(method.getModifiers()) || !Test.class.isAssignableFrom(method.getReturnType())) { return null; }
+      return (Test) method.invoke(null);
+    } catch (NoSuchMethodException e) {
+      return null;
+    } catch (Exception e) {
+      throw new IllegalStateException("Could not build the suite of " + testClass.getName(), e);
+    }
+  }
+
+  // Gather the classes behind each test in a constructed suite. Returns false if a test
+  // doesn't identify its class.
+  private static boolean collect(TestSuite suite, List<Class<?>> classes) {
+    for (Enumeration<Test> tests = suite.tests(); tests.hasMoreElements();) {
+      Test test = tests.nextElement();
+      if (test instanceof JUnit4TestAdapter) { classes.add(((JUnit4TestAdapter) test).getTestClass()); }
+      else if (test instanceof TestCase && !test.getClass().isAnonymousClass()) { classes.add(test.getClass()); }
+      else if (test instanceof TestSuite) {
+        Class<?> testClass = classNamed(((TestSuite) test).getName());
+        if (testClass != null) { classes.add(testClass); }
+        else if (!collect((TestSuite) test, classes)) { return false; }
+      }
+      else { return false; }
+    }
+    return true;
+  }
+
+  private static Class<?> classNamed(String name) {
+    if (name == null) { return null; }
+    try { return Class.forName(name); } catch (ClassNotFoundException e) { return null; }
+  }
+
+}
@@ -0,0 +1,33 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestAdderCollectors {
+
+  Adder adder = new Adder();
+  List<String> words = Arrays.asList("one", "two", "three", "four");
+
+  @Test public void testSummingInt() {
+    assertEquals(Integer.valueOf(15), words.parallelStream().collect(AdderCollectors.summingInt(adder, String::length)));
+  }
+
+  @Test public void testSummingDouble() {
+    assertEquals(7.5, words.stream().collect(AdderCollectors.summingDouble(adder, w -> w.length() / 2.0)), 0.0);
+  }
+
+  @Test public void testPrimitiveReductions() {
+    assertEquals(5050, AdderCollectors.sum(adder, IntStream.rangeClosed(1, 100).parallel()));
+    assertEquals(1.5, AdderCollectors.sum(adder, DoubleStream.of(0.5, 0.5, 0.5)), 0.0);
+    assertEquals(6, IntStream.of(1, 2, 3).reduce(0, adder.intOperator()));
+  }
+
+}
@@ -0,0 +1,49 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.nio.IntBuffer;
+
+import org.junit.Test;
+
+import static io.github.frymire.InvocationTrace.call;
+import static org.junit.Assert.assertArrayEquals;
+
+// Exercise the batch entry points on TestMe with real adders.
+public class TestBatchTestMe {
+
+  @Test public void testBatchWithPlainAdder() {
+    int[] out = new int[3];
+    new TestMe("plain", true, new Adder()).add(new int[] {1, 2, 3}, new int[] {4, 5, 6}, out);
+    assertArrayEquals(new int[] {5, 7, 9}, out);
+  }
+
+  // A subclass that overrides the bulk form has it used for the batch.
+  @Test public void testBatchWithCustomAdder() {
+    Adder subtracter = new Adder() {
+      @Override public int add(int a, int b) { return a - b; }
+      @Override public void add(int[] a, int[] b, int[] out) {
+        for (int k = 0; k < out.length; k++) { out[k] = add(a[k], b[k]); }
+      }
+    };
+    int[] out = new int[3];
+    new TestMe("custom", true, subtracter).add(new int[] {1, 2, 3}, new int[] {4, 5, 6}, out);
+    assertArrayEquals(new int[] {-3, -3, -3}, out);
+  }
+
+  // A subclass that doesn't keeps the bulk path: the batch is one call, not one per pair.
+  @Test public void testBatchWithTracedAdder() {
+    InvocationTrace.reset();
+    int[] out = new int[3];
+    new TestMe("traced", true, new TracedAdder()).add(new int[] {1, 2, 3}, new int[] {4, 5, 6}, out);
+    assertArrayEquals(new int[] {5, 7, 9}, out);
+    InvocationTrace.verifyExactly(call("Adder.add(int[],int[],int[])", 3));
+  }
+
+  @Test public void testInterleavedBuffer() {
+    IntBuffer out = IntBuffer.allocate(2);
+    new TestMe("buffer", true, new Adder()).add(IntBuffer.wrap(new int[] {1, 1, 2, 3}), out);
+    assertArrayEquals(new int[] {2, 5}, out.array());
+  }
+
+}
@@ -0,0 +1,48 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+// Exercise the bulk array forms of Adder with a real instance.
+public class TestBulkAdder {
+
+  Adder adder = new Adder();
+
+  @Test public void testAddIntArrays() {
+    int[] out = new int[3];
+    adder.add(new int[] {1, 2, 3}, new int[] {10, 20, 30}, out);
+    assertArrayEquals(new int[] {11, 22, 33}, out);
+  }
+
+  @Test public void testAddDoubleArrays() {
+    double[] out = new double[2];
+    adder.add(new double[] {0.5, 1.5}, new double[] {0.25, 0.25}, out);
+    assertArrayEquals(new double[] {0.75, 1.75}, out, 0.0);
+  }
+
+  // Only the requested window of each array is touched.
+  @Test public void testAddWithOffsets() {
+    int[] out = {-1, -1, -1, -1};
+    adder.add(new int[] {0, 1, 2}, 1, new int[] {5, 5, 5, 5}, 2, out, 1, 2);
+    assertArrayEquals(new int[] {-1, 6, 7, -1}, out);
+  }
+
+  @Test public void testAccumulate() {
+    double[] acc = {1, 2, 3};
+    adder.accumulate(acc, new double[] {1, 1, 1});
+    adder.accumulate(acc, new double[] {1, 1, 1});
+    assertArrayEquals(new double[] {3, 4, 5}, acc, 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class) public void testMismatchedLengths() {
+    adder.add(new int[2], new int[3], new int[2]);
+  }
+
+  @Test(expected = ArrayIndexOutOfBoundsException.class) public void testRangeOutOfBounds() {
+    adder.accumulate(new int[4], 2, new int[4], 0, 3);
+  }
+
+}
@@ -0,0 +1,94 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestCdsLauncher {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  // A main class that can't be initialized.
+  public static class BrokenMain {
+    static final int VALUE = Integer.parseInt("broken");
+    public static void main(String[] args) { System.out.println(VALUE); }
+  }
+
+  public static class QuietMain {
+    public static void main(String[] args) {}
+  }
+
+  public static class Passing {
+    @Test public void testPasses() {}
+  }
+
+  public static class Failing {
+    @Test public void testFails() { assertTrue(false); }
+  }
+
+  @Test public void testDropsJMockitJar() throws IOException {
+    File jmockit = jar("jmockit.jar", "mockit/Mocked.class");
+    File other = jar("other.jar", "io/github/frymire/Other.class");
+    String classpath = other.getPath() + File.pathSeparator + jmockit.getPath() + File.pathSeparator + folder.getRoot().getPath();
+    assertEquals(other.getPath() + File.pathSeparator + folder.getRoot().getPath(), CdsLauncher.withoutJMockit(classpath));
+  }
+
+  @Test public void testLeavesOutJMockitTests() throws Exception {
+    assertTrue(CdsLauncher.needsJMockit(JMockitExpectations.class));
+    assertFalse(CdsLauncher.needsJMockit(TestAssertions.class));
+    assertEquals(Arrays.asList("--threads", "2", TestAssertions.class.getName()),
+        CdsLauncher.withoutJMockitTests(Arrays.asList("--threads", "2", "TestAssertions", "JMockitExpectations")));
+    List<String> unchanged = Arrays.asList("--slowest", "3", "AnnotatedSuite");
+    assertSame(unchanged, CdsLauncher.withoutJMockitTests(unchanged));
+    assertNull(CdsLauncher.withoutJMockitTests(Collections.singletonList("JMockitVerifications")));
+  }
+
+  // A child that can't initialize its main class is an error, and a training run that ends
+  // that way leaves no archive behind.
+  @Test public void testClassInitFailureIsAnError() throws Exception {
+    File archives = folder.newFolder("cds");
+    assertEquals(CdsLauncher.CLASS_INIT_FAILED, CdsLauncher.launch(BrokenMain.class.getName(), Collections.<String>emptyList(), archives));
+    for (String name : archives.list()) { assertFalse(name, name.endsWith(".jsa")); }
+    assertEquals(0, CdsLauncher.launch(QuietMain.class.getName(), Collections.<String>emptyList(), archives));
+  }
+
+  // A test run that fails exits non-zero, so "mvn -Pcds" fails the build too.
+  @Test public void testFailingRunIsAnError() throws Exception {
+    File archives = folder.newFolder("cds");
+    String history = new File(folder.getRoot(), "history.properties").getPath();
+    assertEquals(1, CdsLauncher.launch(TestRunner.class.getName(),
+        Arrays.asList("--history", history, Failing.class.getName()), archives));
+    assertEquals(0, CdsLauncher.launch(TestRunner.class.getName(),
+        Arrays.asList("--history", history, Passing.class.getName()), archives));
+  }
+
+  private File jar(String name, String entry) throws IOException {
+    File file = new File(folder.getRoot(), name);
+    JarOutputStream jar = new JarOutputStream(new FileOutputStream(file));
+    try {
+      jar.putNextEntry(new JarEntry(entry));
+      jar.write(new byte[] {0});
+    } finally {
+      jar.close();
+    }
+    return file;
+  }
+
+}
@@ -0,0 +1,44 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.DoubleStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestCompensatedSum {
+
+  // A naive loop loses the small terms entirely; the compensated sum keeps them.
+  @Test public void testCancellation() {
+    double[] values = {1e100, 1.0, -1e100, 1.0};
+    assertEquals(2.0, CompensatedSum.sum(values), 0.0);
+    assertEquals(2.0, new Adder().sum(values), 0.0);
+  }
+
+  // The result doesn't depend on how many threads did the work.
+  @Test public void testReproducibleAcrossParallelism() {
+    Random random = new Random(7);
+    double[] values = new double[100000];
+    for (int i = 0; i < values.length; i++) { values[i] = random.nextGaussian() * Math.pow(10, random.nextInt(20)); }
+
+    double expected = sum(values, 1);
+    for (int parallelism : new int[] {2, 3, 8}) {
+      assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(sum(values, parallelism)));
+    }
+    assertEquals(expected, CompensatedSum.sum(DoubleStream.of(values).parallel()), 0.0);
+  }
+
+  private static double sum(double[] values, int parallelism) {
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      return CompensatedSum.sum(values, pool);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,82 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestCompiledMatcher {
+
+  private static final List<Object> ITEMS = Arrays.<Object>asList(
+      null, "Hello", "Goodbye", "", 4, 4L, 4.0, new int[] {1, 2}, new Integer[] {1, 2}, new Object());
+
+  // The matchers from HamcrestExamples, and some nested further.
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static final List<Matcher> MATCHERS = Arrays.<Matcher>asList(
+      is(allOf(notNullValue(), instanceOf(String.class), equalTo("Hello"))),
+      is(not(allOf(notNullValue(), instanceOf(Integer.class)))),
+      is(anyOf(nullValue(), instanceOf(String.class), equalTo("Goodbye"))),
+      is(not(anyOf(nullValue(), instanceOf(Integer.class), equalTo("Goodbye")))),
+      is(anything()),
+      describedAs("My Description", anything()),
+      not(anything()),
+      is(is(is(notNullValue()))),
+      allOf(anyOf(equalTo((Object) 4), equalTo((Object) 4L)), not(nullValue()), anyOf(instanceOf(Number.class), sameInstance(null))),
+      anyOf(allOf(notNullValue(), equalTo((Object) new int[] {1, 2})), anyOf(equalTo("Hello"), equalTo(""))),
+      not(not(instanceOf(Number.class))),
+      both(instanceOf(String.class)).and(notNullValue()),
+      allOf(containsString("ell"), instanceOf(String.class)));
+
+  @SuppressWarnings("unchecked")
+  @Test public void testMatchesAsHamcrestDoes() {
+    for (Matcher<Object> matcher : MATCHERS) {
+      Matcher<Object> compiled = CompiledMatcher.compile(matcher);
+      for (Object item : ITEMS) {
+        assertEquals(matcher + " on " + item, matcher.matches(item), compiled.matches(item));
+      }
+    }
+  }
+
+  @Test public void testFlattensAndReorders() {
+    CompiledMatcher<Object> compiled = CompiledMatcher.compile(is(allOf(equalTo("Hello"), allOf(instanceOf(String.class), notNullValue()))));
+    assertEquals("and(notNull, instanceOf(String), equal(Hello))", compiled.program());
+  }
+
+  @Test public void testPushesNotsDown() {
+    CompiledMatcher<Object> compiled = CompiledMatcher.compile(not(anyOf(nullValue(), equalTo("Goodbye"), instanceOf(Integer.class))));
+    assertEquals("and(notNull, notInstanceOf(Integer), notEqual(Goodbye))", compiled.program());
+  }
+
+  @Test public void testFoldsConstants() {
+    assertEquals("true", CompiledMatcher.compile(anyOf(equalTo("x"), anything())).program());
+    assertEquals("null", CompiledMatcher.compile(allOf(anything(), nullValue())).program());
+  }
+
+  @Test public void testKeepsUnknownMatchersInOrder() {
+    Matcher<String> first = containsString("a");
+    Matcher<String> second = startsWith("b");
+    CompiledMatcher<String> compiled = CompiledMatcher.compile(allOf(first, notNullValue(), second));
+    assertEquals("and(notNull, matcher(" + first + "), matcher(" + second + "))", compiled.program());
+  }
+
+  @Test public void testDescribesAsTheOriginal() {
+    Matcher<Object> matcher = allOf(notNullValue(), equalTo("Hello"));
+    try {
+      assertThat("Goodbye", CompiledMatcher.compile(matcher));
+      fail();
+    } catch (AssertionError e) {
+      assertEquals(StringDescription.toString(matcher), StringDescription.toString(CompiledMatcher.compile(matcher)));
+      assertEquals(true, e.getMessage().contains(StringDescription.toString(matcher)));
+    }
+  }
+
+}
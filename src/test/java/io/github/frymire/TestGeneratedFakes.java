@@ -0,0 +1,227 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.Test;
+
+import static io.github.frymire.FakeRecorder.any;
+import static io.github.frymire.FakeRecorder.anyDouble;
+import static io.github.frymire.FakeRecorder.anyInt;
+import static io.github.frymire.FakeRecorder.eq;
+import static io.github.frymire.FakeRecorder.expectations;
+import static io.github.frymire.FakeRecorder.fullVerifications;
+import static io.github.frymire.FakeRecorder.fullVerificationsInOrder;
+import static io.github.frymire.FakeRecorder.maxTimes;
+import static io.github.frymire.FakeRecorder.result;
+import static io.github.frymire.FakeRecorder.returns;
+import static io.github.frymire.FakeRecorder.times;
+import static io.github.frymire.FakeRecorder.verifications;
+import static io.github.frymire.FakeRecorder.verificationsInOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+// The JMockit expectations and verifications demos again, with fakes generated at compile
+// time instead of mocks made by redefining classes.
+@GenerateFakes({Adder.class, Talker.class, TestMe.class})
+public class TestGeneratedFakes {
+
+  @Test public void testMultipleInvocations() {
+    FakeAdder adder = new FakeAdder();
+    expectations(() -> { adder.add(anyInt(), anyInt()); result(10); });
+    assertEquals(10, adder.add(1, 1));
+    assertEquals(10, adder.add(2, 2));
+  }
+
+  @Test public void testOrderIndependence() {
+    FakeAdder adder = new FakeAdder();
+    expectations(() -> {
+      adder.add(2, 3);
+      result(5);
+      adder.add(4, 5);
+      result(9);
+    });
+    assertEquals(9, adder.add(4, 5));
+    assertEquals(5, adder.add(2, 3));
+    assertEquals(0, adder.add(1, 1));
+  }
+
+  @Test public void testSuccessiveResults() {
+    FakeTalker talker = new FakeTalker();
+    expectations(() -> { talker.sayHi(); returns("Hi.", "Hello."); });
+    assertEquals("Hi.", talker.sayHi());
+    assertEquals("Hello.", talker.sayHi());
+    assertEquals("Hello.", talker.sayHi());
+  }
+
+  // Results are widened to the method's primitive type, or rejected when they're recorded.
+  @Test public void testPrimitiveResults() {
+    FakeAdder adder = new FakeAdder();
+    expectations(() -> { adder.add(anyDouble(), anyDouble()); result(10); });
+    assertEquals(10.0, adder.add(1.0, 2.0), 0);
+    expectations(() -> {
+      adder.add(anyInt(), anyInt());
+      assertEquals("The result 1.5 can't be returned by add(int,int)", rejected(() -> result(1.5)));
+      assertEquals("The result \"ten\" can't be returned by add(int,int)", rejected(() -> returns(1, "ten")));
+      assertEquals("The result null can't be returned by add(int,int)", rejected(() -> result(null)));
+    });
+  }
+
+  @Test(expected = IOException.class)
+  public void testThrownResult() throws IOException {
+    FakeTalker talker = new FakeTalker();
+    expectations(() -> { talker.writeHi((OutputStream) any()); result(new IOException("Closed.")); });
+    talker.writeHi(new ByteArrayOutputStream());
+  }
+
+  @Test public void testUnrecordedCallsReturnDefaults() {
+    FakeTestMe testMe = new FakeTestMe();
+    assertNull(testMe.getName());
+    assertFalse(testMe.getFlag());
+    assertEquals(0, testMe.add(1, 2));
+  }
+
+  @Test public void testInjectedFake() {
+    FakeAdder adder = new FakeAdder();
+    expectations(() -> { adder.add(anyInt(), anyInt()); result(7); });
+    assertEquals(7, new TestMe("name", true, adder).add(3, 3));
+    verifications(() -> adder.add(3, 3));
+  }
+
+  @Test public void testVerifications() {
+    FakeAdder adder = new FakeAdder();
+    adder.add(1, 1);
+    verifications(() -> {
+      adder.add(anyInt(), eq(1));
+      times(1);
+      adder.add(anyDouble(), anyDouble());
+      times(0);
+    });
+  }
+
+  @Test(expected = AssertionError.class)
+  public void testVerifyNumberOfInvocations() {
+    FakeAdder adder = new FakeAdder();
+    adder.add(1, 2);
+    adder.add(3, 4);
+    adder.add(5, 6);
+    verifications(() -> { adder.add(anyInt(), anyInt()); maxTimes(2); });
+  }
+
+  // A tolerance matches any number, so it can stand for an int argument.
+  @Test public void testToleranceOnInts() {
+    FakeAdder adder = new FakeAdder();
+    adder.add(1, 2);
+    verifications(() -> adder.add((int) eq(1.0, 0.5), anyInt()));
+  }
+
+  // Counts in order cover the calls between the previous check and the next.
+  @Test public void testCountsInOrder() {
+    FakeAdder adder = new FakeAdder();
+    FakeTalker talker = new FakeTalker();
+    adder.add(1, 1);
+    talker.sayHi();
+    adder.add(1, 1);
+    verificationsInOrder(() -> {
+      adder.add(1, 1);
+      times(1);
+      talker.sayHi();
+      adder.add(1, 1);
+      times(1);
+    });
+  }
+
+  @Test(expected = AssertionError.class)
+  public void testMaxTimesInOrder() {
+    FakeAdder adder = new FakeAdder();
+    FakeTalker talker = new FakeTalker();
+    adder.add(1, 1);
+    adder.add(1, 1);
+    talker.sayHi();
+    verificationsInOrder(() -> {
+      adder.add(1, 1);
+      maxTimes(1);
+      talker.sayHi();
+    });
+  }
+
+  @Test public void testVerificationsInOrder() {
+    FakeAdder adder = new FakeAdder();
+    FakeTalker talker = new FakeTalker();
+    adder.add(1, 1);
+    talker.sayHi();
+    adder.add(2, 2);
+    verificationsInOrder(() -> {
+      adder.add(1, 1);
+      adder.add(2, 2);
+    });
+  }
+
+  @Test(expected = AssertionError.class)
+  public void testVerificationsOutOfOrder() {
+    FakeAdder adder = new FakeAdder();
+    adder.add(1, 1);
+    adder.add(2, 2);
+    verificationsInOrder(() -> {
+      adder.add(2, 2);
+      adder.add(1, 1);
+    });
+  }
+
+  @Test(expected = AssertionError.class)
+  public void testFullVerification() {
+    FakeAdder adder = new FakeAdder();
+    adder.add(1, 1);
+    adder.add(2, 2);
+    adder.add(3, 3);
+    fullVerifications(() -> {
+      adder.add(2, 2);
+      adder.add(1, 1);
+    });
+  }
+
+  @Test public void testFullVerificationInOrder() {
+    FakeAdder adder = new FakeAdder();
+    adder.add(1, 1);
+    adder.add(2, 2);
+    fullVerificationsInOrder(() -> {
+      adder.add(1, 1);
+      adder.add(2, 2);
+    });
+  }
+
+  @Test public void testVerifyNoInvocations() {
+    FakeAdder adder1 = new FakeAdder();
+    FakeAdder adder2 = new FakeAdder();
+    adder1.add(1, 1);
+    fullVerifications(() -> {}, adder2);
+    assertEquals(0, adder2.fakeRecorder().invocationCount());
+  }
+
+  @Test public void testArrayArguments() {
+    FakeAdder adder = new FakeAdder();
+    int[] out = new int[2];
+    adder.add(new int[] {1, 2}, new int[] {3, 4}, out);
+    verifications(() -> adder.add(eq(new int[] {1, 2}), eq(new int[] {3, 4}), any()));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMixedMatchers() {
+    FakeAdder adder = new FakeAdder();
+    verifications(() -> adder.add(anyInt(), 1));
+  }
+
+  private static String rejected(Runnable recording) {
+    try {
+      recording.run();
+    } catch (IllegalArgumentException e) {
+      return e.getMessage();
+    }
+    throw new AssertionError("The result was accepted.");
+  }
+
+}
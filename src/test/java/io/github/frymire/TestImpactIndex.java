@@ -0,0 +1,82 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestImpactIndex {
+
+  // Refers to TracedTalker only through a field descriptor, to TimerWheel only through a generic
+  // signature, and to Adder through an array type and a method descriptor.
+  static class Holder {
+    TracedTalker talker;
+    List<TimerWheel> wheels;
+    Adder[] adders;
+    int sum(Adder adder) { return 0; }
+  }
+
+  @Test public void testClassEntries() throws IOException {
+    Set<String> names = ImpactIndex.referencedClasses(classFile(TracedAdder.class));
+    assertTrue(names.toString(), names.contains("io.github.frymire.InvocationTrace"));
+    assertTrue(names.toString(), names.contains("io.github.frymire.Adder"));
+  }
+
+  @Test public void testDescriptorsAndSignatures() throws IOException {
+    Set<String> names = ImpactIndex.referencedClasses(classFile(Holder.class));
+    assertTrue(names.toString(), names.contains("io.github.frymire.TracedTalker"));
+    assertTrue(names.toString(), names.contains("io.github.frymire.TimerWheel"));
+    assertTrue(names.toString(), names.contains("io.github.frymire.Adder"));
+    assertTrue(names.toString(), names.contains("java.util.List"));
+    for (String name : names) { assertFalse(name, name.startsWith("L") || name.startsWith("[")); }
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsOtherFiles() throws IOException { ImpactIndex.referencedClasses(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}); }
+
+  // Dependencies are followed through the project's own classes, but not into the JDK.
+  @Test public void testTransitiveDependencies() throws IOException {
+    ImpactIndex index = ImpactIndex.load(new File("target", "no-such-index.properties"));
+    Set<String> dependencies = index.dependencies(Holder.class.getName());
+    assertTrue(dependencies.toString(), dependencies.contains("io.github.frymire.Talker"));
+    assertTrue(dependencies.toString(), dependencies.contains("io.github.frymire.InvocationTrace"));
+    assertFalse(dependencies.toString(), dependencies.contains("java.util.List"));
+  }
+
+  // A crashed shard fails every class in it, so they all run again next time.
+  @Test public void testCrashedShardFailsItsClasses() throws IOException {
+    ImpactIndex index = ImpactIndex.load(new File("target", "no-such-index.properties"));
+    List<Class<?>> classes = Arrays.<Class<?>>asList(TestAssertions.class, TestBulkAdder.class, TestStripedAdder.class);
+    MergedResult result = new MergedResult();
+    result.addFailure(ShardCoordinator.shardFailure(1, 2, classes.subList(0, 2), "timed out after 600 s"));
+    index.update(classes, result);
+    assertEquals(classes.subList(0, 2), index.affected(classes));
+    index.update(classes, new MergedResult());
+    assertEquals(Collections.emptyList(), index.affected(classes));
+  }
+
+  private static byte[] classFile(Class<?> type) throws IOException {
+    InputStream in = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      byte[] buffer = new byte[8192];
+      for (int n = in.read(buffer); n > 0; n = in.read(buffer)) { bytes.write(buffer, 0, n); }
+    } finally {
+      in.close();
+    }
+    return bytes.toByteArray();
+  }
+
+}
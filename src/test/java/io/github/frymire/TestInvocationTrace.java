@@ -0,0 +1,120 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.github.frymire.InvocationTrace.ANY;
+import static io.github.frymire.InvocationTrace.call;
+import static io.github.frymire.InvocationTrace.Slot.DOUBLE;
+import static io.github.frymire.InvocationTrace.Slot.INT;
+import static org.junit.Assert.assertEquals;
+
+public class TestInvocationTrace {
+
+  private static final int STEP = InvocationTrace.method("TestInvocationTrace.step(int,int)", INT, INT);
+  private static final int SCALE = InvocationTrace.method("TestInvocationTrace.scale(double)", DOUBLE);
+  private static final int STOP = InvocationTrace.method("TestInvocationTrace.stop()");
+
+  @Before public void reset() { InvocationTrace.reset(); }
+
+  @Test public void testVerifyInOrder() {
+    InvocationTrace.record(STEP, 1, 1);
+    InvocationTrace.record(SCALE, 0.5, 0);
+    InvocationTrace.record(STEP, 2, 2);
+    InvocationTrace.record(STOP);
+    InvocationTrace.verifyInOrder(
+        call("TestInvocationTrace.step(int,int)", 1, 1),
+        call("TestInvocationTrace.step(int,int)", 2, ANY),
+        call("TestInvocationTrace.stop()"));
+  }
+
+  @Test(expected = AssertionError.class)
+  public void testVerifyOutOfOrder() {
+    InvocationTrace.record(STEP, 1, 1);
+    InvocationTrace.record(STEP, 2, 2);
+    InvocationTrace.verifyInOrder(
+        call("TestInvocationTrace.step(int,int)", 2, 2),
+        call("TestInvocationTrace.step(int,int)", 1, 1));
+  }
+
+  @Test public void testVerifyExactly() {
+    InvocationTrace.record(SCALE, 1.5, 0);
+    InvocationTrace.record(STOP);
+    InvocationTrace.verifyExactly(call("TestInvocationTrace.scale(double)", 1.5), call("TestInvocationTrace.stop()"));
+  }
+
+  @Test(expected = AssertionError.class)
+  public void testVerifyExactlyWithExtraCall() {
+    InvocationTrace.record(STOP);
+    InvocationTrace.record(STOP);
+    InvocationTrace.verifyExactly(call("TestInvocationTrace.stop()"));
+  }
+
+  @Test public void testCount() {
+    for (int i = 0; i < 10; i++) { InvocationTrace.record(STEP, i, i % 2); }
+    assertEquals(10, InvocationTrace.count(call("TestInvocationTrace.step(int,int)", ANY, ANY)));
+    assertEquals(5, InvocationTrace.count(call("TestInvocationTrace.step(int,int)", ANY, 1)));
+    assertEquals(0, InvocationTrace.count(call("TestInvocationTrace.step(int,int)", 1.5, ANY)));
+  }
+
+  // Each overload is recorded under its own name, and only once.
+  @Test public void testAdderOverloads() {
+    Adder adder = new TracedAdder();
+    int[] ints = new int[4];
+    double[] doubles = new double[4];
+    adder.add(ints, ints, ints);
+    adder.add(ints, 1, ints, 1, ints, 1, 2);
+    adder.add(doubles, doubles, doubles);
+    adder.add(doubles, 0, doubles, 0, doubles, 0, 3);
+    adder.accumulate(ints, ints);
+    adder.accumulate(ints, 0, ints, 0, 1);
+    adder.accumulate(doubles, doubles);
+    adder.accumulate(doubles, 2, doubles, 2, 2);
+    InvocationTrace.verifyExactly(
+        call("Adder.add(int[],int[],int[])", 4),
+        call("Adder.add(int[],int,int[],int,int[],int,int)", 2),
+        call("Adder.add(double[],double[],double[])", 4),
+        call("Adder.add(double[],int,double[],int,double[],int,int)", 3),
+        call("Adder.accumulate(int[],int[])", 4),
+        call("Adder.accumulate(int[],int,int[],int,int)", 1),
+        call("Adder.accumulate(double[],double[])", 4),
+        call("Adder.accumulate(double[],int,double[],int,int)", 2));
+  }
+
+  // A plain Adder or Talker records nothing.
+  @Test public void testOnlyTracedObjectsRecord() throws IOException {
+    Talker talker = new TracedTalker();
+    new Adder().add(1, 2);
+    new Talker().sayHi();
+    talker.sayHi();
+    talker.writeHi(ByteBuffer.allocate(talker.hiLength()));
+    talker.writeHi(new ByteArrayOutputStream());
+    assertEquals(7, new TracedAdder().add(3, 4));
+    InvocationTrace.verifyExactly(
+        call("Talker.sayHi()"),
+        call("Talker.writeHi(ByteBuffer)"),
+        call("Talker.writeHi(OutputStream)"),
+        call("Adder.add(int,int)", 3, 4));
+  }
+
+  @Test public void testConcurrentRecording() throws InterruptedException {
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final int thread = t;
+      threads[t] = new Thread(() -> { for (int i = 0; i < 1000; i++) { InvocationTrace.record(STEP, thread, i); } });
+      threads[t].start();
+    }
+    for (Thread thread : threads) { thread.join(); }
+    assertEquals(4000, InvocationTrace.recorded());
+    for (int t = 0; t < threads.length; t++) {
+      assertEquals(1000, InvocationTrace.count(call("TestInvocationTrace.step(int,int)", t, ANY)));
+    }
+  }
+
+}
@@ -0,0 +1,87 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Assume;
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TestLazyAssert {
+
+  @Test public void testPassingChecks() {
+    LazyAssert.check(0 < 1);
+    LazyAssert.check(0 < 1, "never formatted %s", new Object() {
+      @Override public String toString() { throw new IllegalStateException("formatted"); }
+    });
+    LazyAssert.check(0 < 1, () -> { throw new IllegalStateException("supplied"); });
+    LazyAssert.equal(new String("abc"), new String("abc"));
+    LazyAssert.equal(null, null);
+    LazyAssert.that("Hello", is(allOf(notNullValue(), instanceOf(String.class), equalTo("Hello"))));
+  }
+
+  @Test public void testFormatsMessageOnFailure() {
+    try {
+      LazyAssert.check(2 + 2 == 5, "sum was %d, expected %d", 2 + 2, 5);
+      fail();
+    } catch (AssertionError e) {
+      assertEquals("sum was 4, expected 5", e.getMessage());
+    }
+  }
+
+  // The failures read as JUnit's own.
+  @Test public void testFailuresMatchJUnit() {
+    assertEquals(message(() -> org.junit.Assert.assertEquals("abc", "abd")), message(() -> LazyAssert.equal("abc", "abd")));
+    assertEquals(message(() -> org.junit.Assert.assertEquals(1, (Object) 2L)), message(() -> LazyAssert.equal(1, 2L)));
+    assertEquals(message(() -> org.junit.Assert.assertThat("Hello", is(equalTo("Goodbye")))),
+        message(() -> LazyAssert.that("Hello", is(equalTo("Goodbye")))));
+  }
+
+  @Test(expected = ComparisonFailure.class)
+  public void testStringsFailAsComparisons() { LazyAssert.equal("abc", "abd"); }
+
+  // Passing checks allocate nothing, where building each message up front would allocate
+  // something on every one. Run enough of them for the JIT to compile the loop first.
+  @Test public void testPassingChecksDoNotAllocate() {
+    Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+    Object hello = "Hello";
+    org.hamcrest.Matcher<Object> matcher = is(allOf(notNullValue(), instanceOf(String.class), equalTo(hello)));
+    checkMany(hello, matcher);
+    long thread = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(thread);
+    checkMany(hello, matcher);
+    long allocated = threads.getThreadAllocatedBytes(thread) - before;
+    assertEquals("allocated " + allocated + " bytes", true, allocated < 64 * 1024);
+  }
+
+  private static void checkMany(Object hello, org.hamcrest.Matcher<Object> matcher) {
+    for (int i = 0; i < 1000000; i++) {
+      LazyAssert.check(i >= 0, "index %d was negative", i);
+      LazyAssert.check(i + 1 > i, "index %d, next %d", i, i + 1);
+      LazyAssert.check(hello != null, () -> "missing value");
+      LazyAssert.equal(hello, "Hello");
+      LazyAssert.that(hello, matcher);
+    }
+  }
+
+  private static String message(Runnable check) {
+    try {
+      check.run();
+    } catch (AssertionError e) {
+      return e.getClass().getName() + ": " + e.getMessage();
+    }
+    throw new AssertionError("The check passed.");
+  }
+
+}
@@ -0,0 +1,69 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+// Sum small files with a tiny chunk size, so that several mappings are exercised.
+public class TestMappedFileAdder {
+
+  // The TemporaryFolder rule deletes the files after each test.
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  MappedFileAdder adder = new MappedFileAdder(16);
+
+  @Test public void testSumInts() throws IOException {
+    ByteBuffer bytes = ByteBuffer.allocate(1000 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 1; i <= 1000; i++) { bytes.putInt(Integer.MAX_VALUE - i); }
+    long expected = 1000L * Integer.MAX_VALUE - 500500;
+    assertEquals(expected, adder.sumInts(write(bytes).toPath()));
+  }
+
+  @Test public void testSumDoubles() throws IOException {
+    ByteBuffer bytes = ByteBuffer.allocate(1001 * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i <= 1000; i++) { bytes.putDouble(i * 0.5); }
+    assertEquals(250250.0, adder.sumDoubles(write(bytes).toPath()), 0.0);
+  }
+
+  // Whatever the chunk size, a file totals exactly what Adder.sum() gives for the same array.
+  @Test public void testSumDoublesMatchesAdder() throws IOException {
+    Random random = new Random(42);
+    double[] values = new double[3 * CompensatedSum.LEAF_SIZE + 17];
+    ByteBuffer bytes = ByteBuffer.allocate(values.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextDouble() * Math.pow(10, random.nextInt(20) - 10);
+      bytes.putDouble(values[i]);
+    }
+    File file = write(bytes);
+    double expected = new Adder().sum(values);
+    for (int chunkBytes : new int[] {16, 777 * Double.BYTES, MappedFileAdder.DEFAULT_CHUNK_BYTES}) {
+      assertEquals(expected, new MappedFileAdder(chunkBytes).sumDoubles(file.toPath()), 0.0);
+    }
+  }
+
+  @Test public void testEmptyFile() throws IOException {
+    assertEquals(0, adder.sumInts(write(ByteBuffer.allocate(0)).toPath()));
+  }
+
+  @Test(expected = IllegalArgumentException.class) public void testTruncatedFile() throws IOException {
+    adder.sumDoubles(write(ByteBuffer.allocate(12)).toPath());
+  }
+
+  private File write(ByteBuffer bytes) throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), bytes.array());
+    return file;
+  }
+
+}
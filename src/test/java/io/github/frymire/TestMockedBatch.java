@@ -0,0 +1,43 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Mocked;
+import mockit.Verifications;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+// TestMe hands a batch to the adder's bulk form, so that's the call to expect on a mocked
+// Adder. Unlike the JMockit demos, these run with the rest of the tests.
+public class TestMockedBatch {
+
+  @Test public void testBatchOnMockedAdder(@Mocked final Adder adder) {
+    final int[] i = {1, 2};
+    final int[] j = {3, 4};
+    final int[] out = new int[2];
+    new TestMe("mocked", true, adder).add(i, j, out);
+    new Verifications() {{
+      adder.add(i, j, out); times = 1;
+      adder.add(anyInt, anyInt); times = 0;
+    }};
+  }
+
+  @Test public void testBatchOnInjectableAdder(@Injectable final Adder adder) {
+    new Expectations() {{
+      adder.add((int[]) any, (int[]) any, (int[]) any);
+      result = new Delegate<Void>() {
+        @SuppressWarnings("unused")
+        void add(int[] a, int[] b, int[] out) { for (int k = 0; k < out.length; k++) { out[k] = a[k] * b[k]; } }
+      };
+    }};
+    int[] out = new int[2];
+    new TestMe("injected", true, adder).add(new int[] {2, 2}, new int[] {3, 4}, out);
+    assertArrayEquals(new int[] {6, 8}, out);
+  }
+
+}
@@ -0,0 +1,82 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.Result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestParallelRunner {
+
+  static final CyclicBarrier bothRunning = new CyclicBarrier(2);
+
+  // Each waits for the other, so they only pass when run at the same time.
+  public static class Left {
+    @Test public void meet() throws Exception {
+      System.out.println("left 1");
+      bothRunning.await(10, TimeUnit.SECONDS);
+      Thread.sleep(20);
+      System.out.println("left 2");
+    }
+  }
+
+  public static class Right {
+    @Test public void meet() throws Exception {
+      System.out.println("right 1");
+      bothRunning.await(10, TimeUnit.SECONDS);
+      Thread.sleep(20);
+      System.out.println("right 2");
+    }
+  }
+
+  public static class Mixed {
+    @Test public void passes() {}
+    @Test public void fails() { fail("Failed on a worker."); }
+  }
+
+  public static class Passing {
+    @Test public void first() {}
+    @Test public void second() {}
+    @Test public void third() {}
+  }
+
+  // The classes overlap, and each one's output still comes out in one piece.
+  @Test public void testRunsClassesTogether() throws InterruptedException {
+    bothRunning.reset();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PrintStream console = System.out;
+    System.setOut(new PrintStream(output, true));
+    Result result;
+    try {
+      result = new ParallelRunner(2).run(Left.class, Right.class);
+    } finally {
+      System.setOut(console);
+    }
+    assertTrue(result.getFailures().toString(), result.wasSuccessful());
+    assertEquals(2, result.getRunCount());
+    String text = output.toString().replace(System.lineSeparator(), "\n");
+    assertTrue(text, text.contains("left 1\nleft 2\n") && text.contains("right 1\nright 2\n"));
+  }
+
+  @Test public void testFailuresAreReported() throws InterruptedException {
+    TimingListener timings = new TimingListener();
+    Result result = new ParallelRunner(3).addListener(timings).run(Mixed.class, Passing.class);
+    assertEquals(2 + 3, result.getRunCount());
+    assertEquals(1, result.getFailureCount());
+    assertEquals("fails(" + Mixed.class.getName() + ")", result.getFailures().get(0).getTestHeader());
+    assertEquals("Failed on a worker.", result.getFailures().get(0).getMessage());
+    assertEquals(2 + 3, timings.getTimings().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNeedsAThread() { new ParallelRunner(0); }
+
+}
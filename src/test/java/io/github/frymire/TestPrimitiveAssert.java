@@ -0,0 +1,94 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestPrimitiveAssert {
+
+  @Test public void testScalars() {
+    PrimitiveAssert.equal(10, new Adder().add(5, 5));
+    PrimitiveAssert.equal(1L << 40, 1L << 40);
+    PrimitiveAssert.equal(0.3, 0.1 + 0.2, 1e-12);
+    PrimitiveAssert.equal(Double.NaN, Double.NaN, 0);
+    assertEquals("expected:<10> but was:<11>", message(() -> PrimitiveAssert.equal(10, 11)));
+    assertEquals("expected:<0.3> but was:<0.4>", message(() -> PrimitiveAssert.equal(0.3, 0.4, 0.01)));
+  }
+
+  // Reported as JUnit's assertArrayEquals would.
+  @Test public void testFirstDifferenceInArrays() {
+    int[] expected = {1, 2, 3, 4, 5};
+    int[] actual = {1, 2, 3, 9, 8};
+    assertEquals(message(() -> Assert.assertArrayEquals(expected, actual)), message(() -> PrimitiveAssert.equal(expected, actual)));
+    assertEquals("arrays first differed at element [2]; expected:<3> but was:<7>",
+        message(() -> PrimitiveAssert.equal(new long[] {1, 2, 3}, new long[] {1, 2, 7})));
+    assertEquals("arrays first differed at element [0]; expected:<-1> but was:<1>",
+        message(() -> PrimitiveAssert.equal(new byte[] {-1}, new byte[] {1})));
+  }
+
+  @Test public void testLengthsAndNulls() {
+    assertEquals("array lengths differed, expected.length=2 actual.length=3",
+        message(() -> PrimitiveAssert.equal(new int[] {1, 2}, new int[] {1, 2, 3})));
+    assertEquals("actual array was null", message(() -> PrimitiveAssert.equal(new int[0], null)));
+    PrimitiveAssert.equal((int[]) null, null);
+    PrimitiveAssert.equal((double[]) null, null, 0.1);
+    PrimitiveAssert.equal((IntBuffer) null, null);
+    PrimitiveAssert.equal((DoubleBuffer) null, null);
+    assertEquals("expected buffer was null", message(() -> PrimitiveAssert.equal(null, ByteBuffer.allocate(1))));
+    assertEquals("actual buffer was null", message(() -> PrimitiveAssert.equal(LongBuffer.allocate(1), null)));
+  }
+
+  @Test public void testDoubleArrays() {
+    PrimitiveAssert.equal(new double[] {Double.NaN, 1.5}, new double[] {Double.NaN, 1.5});
+    assertEquals("arrays first differed at element [0]; expected:<0.0> but was:<-0.0>",
+        message(() -> PrimitiveAssert.equal(new double[] {0.0}, new double[] {-0.0})));
+    PrimitiveAssert.equal(new double[] {0.3, 1}, new double[] {0.1 + 0.2, 1}, 1e-12);
+    assertEquals("arrays first differed at element [1]; expected:<1.0> but was:<1.1>",
+        message(() -> PrimitiveAssert.equal(new double[] {0.3, 1}, new double[] {0.1 + 0.2, 1.1}, 1e-12)));
+  }
+
+  // Only the remaining elements count, and an index is reported from each buffer's position.
+  @Test public void testBuffers() {
+    ByteBuffer expected = ByteBuffer.wrap(new byte[] {9, 1, 2, 3});
+    expected.get();
+    PrimitiveAssert.equal(expected, ByteBuffer.wrap(new byte[] {1, 2, 3}));
+    assertEquals("buffers first differed at element [2]; expected:<3> but was:<4>",
+        message(() -> PrimitiveAssert.equal(expected, ByteBuffer.wrap(new byte[] {1, 2, 4}))));
+    assertEquals(1, expected.position());
+    assertEquals("buffer lengths differed, expected.remaining=3 actual.remaining=2",
+        message(() -> PrimitiveAssert.equal(expected, ByteBuffer.wrap(new byte[] {1, 2}))));
+    assertEquals("buffers first differed at element [1]; expected:<2> but was:<5>",
+        message(() -> PrimitiveAssert.equal(IntBuffer.wrap(new int[] {1, 2}), IntBuffer.wrap(new int[] {1, 5}))));
+    PrimitiveAssert.equal(ByteBuffer.wrap("The real talker says hi.".getBytes(StandardCharsets.UTF_8)), new Talker().hiBytes());
+    PrimitiveAssert.equal(DoubleBuffer.wrap(new double[] {0.0, Double.NaN}), DoubleBuffer.wrap(new double[] {-0.0, Double.NaN}));
+  }
+
+  @Test public void testLargeArrays() {
+    int[] expected = new int[1 << 24];
+    for (int i = 0; i < expected.length; i++) { expected[i] = i * 31; }
+    int[] actual = expected.clone();
+    PrimitiveAssert.equal(expected, actual);
+    actual[actual.length - 2]++;
+    assertEquals("arrays first differed at element [16777214]; expected:<520093634> but was:<520093635>",
+        message(() -> PrimitiveAssert.equal(expected, actual)));
+  }
+
+  private static String message(Runnable check) {
+    try {
+      check.run();
+    } catch (AssertionError e) {
+      return e.getMessage();
+    }
+    throw new AssertionError("The check passed.");
+  }
+
+}
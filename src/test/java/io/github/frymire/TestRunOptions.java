@@ -0,0 +1,46 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TestRunOptions {
+
+  @Test public void testParse() {
+    RunOptions options = RunOptions.parse(new String[] {"--threads", "4", "TestAssertions", "--changed", "--shard", "1/3", "AnnotatedSuite"});
+    assertEquals(4, options.threads);
+    assertEquals(1, options.shardIndex);
+    assertEquals(3, options.shardCount);
+    assertEquals(true, options.changedOnly);
+    assertEquals(Arrays.asList("TestAssertions", "AnnotatedSuite"), options.classNames);
+    assertEquals(Arrays.asList("--threads", "4", "--changed", "--shard", "1/3"), options.optionArgs);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShardOutOfRange() { RunOptions.parse(new String[] {"--shard", "3/3"}); }
+
+  // The impact index is only kept when asked for, with --changed using the default file.
+  @Test public void testImpactIndexIsOptIn() {
+    assertNull(RunOptions.parse(new String[] {"TestAssertions"}).impactFile);
+    assertEquals(new File("target", "test-impact.properties"), RunOptions.parse(new String[] {"--changed"}).impactFile);
+    assertEquals(new File("impact.properties"), RunOptions.parse(new String[] {"--changed", "--impact-index", "impact.properties"}).impactFile);
+  }
+
+  // Only the coordinator keeps the impact index, so children aren't given it.
+  @Test public void testChildrenLeaveTheImpactIndexAlone() {
+    RunOptions options = RunOptions.parse(new String[] {"--forks", "2", "--threads", "2", "--impact-index", "impact.properties"});
+    RunOptions child = RunOptions.parse(options.childArgs(Collections.<Class<?>>singletonList(TestAssertions.class), "result", "history")
+        .toArray(new String[0]));
+    assertNull(child.impactFile);
+    assertEquals(2, child.threads);
+    assertEquals(Collections.singletonList(TestAssertions.class.getName()), child.classNames);
+  }
+
+}
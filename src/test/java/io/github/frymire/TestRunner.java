@@ -2,6 +2,11 @@
 
 package io.github.frymire;
 
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
 import org.junit.runner.JUnitCore;
 import org.junit.runner.Result;
 import org.junit.runner.notification.Failure;
@@ -17,8 +22,32 @@ public class TestRunner {
   }
   
 
-  // Run some tests and print the results.
-  public static void main(String[] args) {
+  // Resolve a test class name, relative to this package unless it is fully qualified.
+  static Class<?> testClass(String name) throws ClassNotFoundException {
+    return Class.forName(name.contains(".") ? name : TestRunner.class.getPackage().getName() + "." + name);
+  }
+
+
+  // Run some tests and print the results. With no arguments, run the demo classes below.
+  // Otherwise run the named classes (TestAssertions and AnnotatedSuite by default) with:
+  //
+  //   --threads N             run the classes in parallel on N worker threads
+  //   --timings FILE          write per-test timings as JSON
+  //   --slowest N             print the N slowest tests
+  //   --shard i/n             run only the i-th of n shards, split by name hash
+  //   --forks n               run all n shards in child JVMs, split by known durations
+  //   --shard-timeout SECONDS fail a forked shard that runs longer (600 by default)
+  //   --history FILE          keep durations here to run the longest classes first
+  //                           (target/test-timings.properties by default)
+  //   --impact-index FILE     track what each class depends on and whether it passed
+  //   --changed               run only the classes whose code or dependencies changed
+  //                           since they last passed (target/test-impact.properties
+  //                           unless --impact-index says otherwise)
+  //
+  // The exit status is 1 if any test failed, so that scripts and CdsLauncher can tell.
+  public static void main(String[] args) throws Exception {
+
+    if (args.length > 0) { System.exit(run(args).wasSuccessful() ? 0 : 1); }
 
     // Run individual test classes.
     Result testResult = JUnitCore.runClasses(TestAssertions.class);
@@ -28,7 +57,66 @@ public class TestRunner {
     // Or run a test suite.
     Result suiteResult = JUnitCore.runClasses(AnnotatedSuite.class);
     report(suiteResult);
+
+    System.exit(testResult.wasSuccessful() && suiteResult.wasSuccessful() ? 0 : 1);
     
   }
+
+  // Run with the options above and print the result. WarmDaemon calls this for each request.
+  public static Result run(String... args) throws Exception {
+    Result result = runWithOptions(args);
+    report(result);
+    return result;
+  }
+
+  private static Result runWithOptions(String[] args) throws Exception {
+
+    RunOptions options = RunOptions.parse(args);
+    TimingHistory history = TimingHistory.load(options.historyFile);
+    ImpactIndex impact = options.impactFile == null ? null : ImpactIndex.load(options.impactFile);
+
+    List<Class<?>> classes = options.testClasses();
+    if (options.changedOnly) {
+      classes = impact.affected(classes);
+      System.out.println("Running " + classes.size() + " test classes affected by changes.");
+    }
+
+    if (options.forks > 0) {
+      ShardCoordinator coordinator = new ShardCoordinator(options, history);
+      Result result = coordinator.run(classes);
+      reportTimings(coordinator.timings(), options);
+      history.save(options.historyFile);
+      updateImpactIndex(impact, options, classes, result);
+      return result;
+    }
+
+    if (options.shardCount > 1) { classes = ShardCoordinator.hashShards(classes, options.shardCount).get(options.shardIndex); }
+    classes = history.longestFirst(classes);
+    TimingListener timings = new TimingListener();
+    Result result = new ParallelRunner(options.threads).addListener(timings).run(classes.toArray(new Class<?>[classes.size()]));
+
+    reportTimings(timings, options);
+    if (options.resultFile != null) { ShardCoordinator.writeResult(result, timings, options.resultFile); }
+    history.record(timings);
+    history.save(options.historyFile);
+    updateImpactIndex(impact, options, classes, result);
+
+    return result;
+
+  }
+
+  private static void reportTimings(TimingListener timings, RunOptions options) throws IOException {
+    if (options.slowest > 0) { timings.printSlowest(System.out, options.slowest); }
+    if (options.timingsFile != null) {
+      Writer out = new FileWriter(options.timingsFile);
+      try { timings.writeJson(out); } finally { out.close(); }
+    }
+  }
+
+  private static void updateImpactIndex(ImpactIndex impact, RunOptions options, List<Class<?>> classes, Result result) throws IOException {
+    if (impact == null) { return; }
+    impact.update(classes, result);
+    impact.save(options.impactFile);
+  }
   
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TestShardCoordinator {
+
+  private static final List<Class<?>> CLASSES = Arrays.<Class<?>>asList(
+      AnnotatedSuite.class, TestBulkAdder.class, TestStripedAdder.class, TestCompensatedSum.class, TestCaseTest.class);
+
+  public static class Passing {
+    @Test public void first() {}
+    @Test public void second() {}
+    @Test public void third() {}
+  }
+
+  public static class Mixed {
+    @Test public void passes() {}
+    @Test public void fails() { fail("Failed in a shard."); }
+  }
+
+  // The hash split covers every member class once, and depends on nothing but the names.
+  @Test public void testHashShards() {
+    List<List<Class<?>>> shards = ShardCoordinator.hashShards(CLASSES, 3);
+    List<Class<?>> all = new ArrayList<Class<?>>();
+    for (int i = 0; i < shards.size(); i++) {
+      for (Class<?> testClass : shards.get(i)) { assertEquals(i, Math.floorMod(testClass.getName().hashCode(), 3)); }
+      all.addAll(shards.get(i));
+    }
+    assertEquals(SuiteMembers.expand(CLASSES).size(), all.size());
+    assertEquals(SuiteMembers.expand(CLASSES).size(), new HashSet<Class<?>>(all).size());
+    assertEquals(shards, ShardCoordinator.hashShards(CLASSES, 3));
+  }
+
+  @Test public void testShardsWithoutHistoryUseTheHash() throws Exception {
+    TimingHistory empty = TimingHistory.load(new File("target", "no-such-history.properties"));
+    assertEquals(ShardCoordinator.hashShards(CLASSES, 2), ShardCoordinator.shards(CLASSES, 2, empty));
+  }
+
+  // Each shard runs in its own JVM, and their results and per-test timings add up.
+  @Test public void testForkedRun() throws Exception {
+    RunOptions options = RunOptions.parse(new String[] {"--forks", "2"});
+    TimingHistory history = TimingHistory.load(new File("target", "no-such-history.properties"));
+    ShardCoordinator coordinator = new ShardCoordinator(options, history);
+    Result result = coordinator.run(Arrays.<Class<?>>asList(Passing.class, Mixed.class));
+    assertEquals(3 + 2, result.getRunCount());
+    assertEquals(1, result.getFailureCount());
+    assertEquals("fails(" + Mixed.class.getName() + ")", result.getFailures().get(0).getTestHeader());
+    Set<String> classes = new HashSet<String>();
+    for (TimingListener.Timing timing : coordinator.timings().getTimings()) { classes.add(timing.className); }
+    assertEquals(3 + 2, coordinator.timings().getTimings().size());
+    assertEquals(new HashSet<String>(Arrays.asList(Passing.class.getName(), Mixed.class.getName())), classes);
+  }
+
+  // A shard that overruns fails as a whole, naming its classes.
+  @Test public void testShardTimeout() throws Exception {
+    RunOptions options = RunOptions.parse(new String[] {"--forks", "1", "--shard-timeout", "0"});
+    TimingHistory history = TimingHistory.load(new File("target", "no-such-history.properties"));
+    Result result = new ShardCoordinator(options, history).run(Arrays.<Class<?>>asList(Passing.class, Mixed.class));
+    assertEquals(1, result.getFailureCount());
+    Failure failure = result.getFailures().get(0);
+    assertEquals("shard 0/1", failure.getDescription().getDisplayName());
+    List<String> classes = new ArrayList<String>();
+    for (Description child : failure.getDescription().getChildren()) { classes.add(child.getClassName()); }
+    assertEquals(Arrays.asList(Passing.class.getName(), Mixed.class.getName()), classes);
+  }
+
+}
@@ -0,0 +1,135 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.model.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestSharedFixtures {
+
+  static final AtomicInteger built = new AtomicInteger();
+  static final AtomicInteger closed = new AtomicInteger();
+  static final List<Resource> used = Collections.synchronizedList(new ArrayList<Resource>());
+
+  static class Resource implements AutoCloseable {
+    volatile boolean open = true;
+    Resource() { built.incrementAndGet(); }
+    @Override public void close() {
+      open = false;
+      closed.incrementAndGet();
+    }
+  }
+
+  public static class First {
+    @ClassRule public static SharedFixtures.Fixture<Resource> resource = SharedFixtures.fixture("test resource", Resource::new);
+    @Test public void use() { used.add(resource.get()); }
+  }
+
+  public static class Second {
+    @ClassRule public static SharedFixtures.Fixture<Resource> resource = SharedFixtures.fixture("test resource", Resource::new);
+    @Test public void use() {
+      used.add(resource.get());
+      assertTrue(resource.get().open);
+    }
+  }
+
+  @RunWith(Suite.class)
+  @Suite.SuiteClasses({First.class, Second.class})
+  public static class Together {
+    @ClassRule public static TestRule scope = SharedFixtures.suiteScope();
+  }
+
+  @Before public void reset() {
+    built.set(0);
+    closed.set(0);
+    used.clear();
+  }
+
+  // Without a suite scope, each class builds the fixture and closes it when it's done.
+  @Test public void testClosedAfterEachClass() {
+    assertTrue(JUnitCore.runClasses(First.class).wasSuccessful());
+    assertEquals(1, closed.get());
+    Result result = JUnitCore.runClasses(Second.class);
+    assertTrue(result.getFailures().toString(), result.wasSuccessful());
+    assertEquals(2, built.get());
+    assertEquals(2, closed.get());
+    assertNotSame(used.get(0), used.get(1));
+  }
+
+  // A suite shares one fixture between its classes and closes it when it ends.
+  @Test public void testSharedAcrossTheSuite() {
+    Result result = JUnitCore.runClasses(Together.class);
+    assertTrue(result.getFailures().toString(), result.wasSuccessful());
+    assertEquals(1, built.get());
+    assertEquals(1, closed.get());
+    assertSame(used.get(0), used.get(1));
+  }
+
+  // SharedFixtureSuite builds its store once for both classes, and closes it when it ends.
+  @Test public void testSharedFixtureSuite() {
+    SharedFixtureSuite.Store.built.set(0);
+    SharedFixtureSuite.Store.closed.set(0);
+    Result result = JUnitCore.runClasses(SharedFixtureSuite.class);
+    assertTrue(result.getFailures().toString(), result.wasSuccessful());
+    assertEquals(2, result.getRunCount());
+    assertEquals(1, SharedFixtureSuite.Store.built.get());
+    assertEquals(1, SharedFixtureSuite.Store.closed.get());
+  }
+
+  // The fixture lives while any class holds it.
+  @Test public void testReferenceCounting() {
+    SharedFixtures.Fixture<Resource> a = SharedFixtures.fixture("test resource", Resource::new);
+    SharedFixtures.Fixture<Resource> b = SharedFixtures.fixture("test resource", Resource::new);
+    a.before();
+    b.before();
+    assertSame(a.get(), b.get());
+    a.after();
+    assertEquals(0, closed.get());
+    b.after();
+    assertEquals(1, built.get());
+    assertEquals(1, closed.get());
+  }
+
+  // A suite's scope keeps only the fixtures taken on its own thread, not those of classes
+  // that happen to run elsewhere at the same time.
+  @Test public void testScopeIsTheSuites() throws Throwable {
+    final SharedFixtures.Fixture<Resource> other = SharedFixtures.fixture("other test resource", Resource::new);
+    Statement suite = new Statement() {
+      @Override public void evaluate() throws Throwable {
+        Thread elsewhere = new Thread(() -> {
+          other.before();
+          other.after();
+        });
+        elsewhere.start();
+        elsewhere.join();
+        assertEquals(1, closed.get());
+        SharedFixtures.Fixture<Resource> mine = SharedFixtures.fixture("test resource", Resource::new);
+        mine.before();
+        mine.after();
+        assertEquals(1, closed.get());
+      }
+    };
+    SharedFixtures.suiteScope().apply(suite, Description.EMPTY).evaluate();
+    assertEquals(2, built.get());
+    assertEquals(2, closed.get());
+  }
+
+}
@@ -0,0 +1,111 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runner.notification.StoppedByUserException;
+import org.junit.runners.Parameterized.Parameters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestStreamingParameterized {
+
+  static final AtomicInteger started = new AtomicInteger();
+
+  @StreamingParameterized.Concurrency(4)
+  public static class Cases {
+    private final int value;
+    public Cases(int value) { this.value = value; }
+    @Parameters(name = "{0}")
+    public static Stream<Integer> values() { return IntStream.range(0, 100).boxed(); }
+    @Test public void test() throws InterruptedException {
+      started.incrementAndGet();
+      Thread.sleep(20 + value % 7);
+    }
+  }
+
+  // Cases are reported one after another in parameter order, each with the time it took.
+  @Test public void testReportsInOrderWithTheirTimes() throws Exception {
+    final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+    TimingListener timings = new TimingListener();
+    RunNotifier notifier = new RunNotifier();
+    notifier.addListener(timings);
+    notifier.addListener(new RunListener() {
+      @Override public void testStarted(Description description) { events.add("started " + description.getMethodName()); }
+      @Override public void testFinished(Description description) { events.add("finished " + description.getMethodName()); }
+    });
+    new StreamingParameterized(Cases.class).run(notifier);
+    List<String> expected = new ArrayList<String>();
+    for (int i = 0; i < 100; i++) {
+      expected.add("started test[" + i + "]");
+      expected.add("finished test[" + i + "]");
+    }
+    assertEquals(expected, events);
+    assertEquals(100, timings.getTimings().size());
+    for (TimingListener.Timing timing : timings.getTimings()) { assertTrue(timing.toString(), timing.wallNanos >= 20000000L); }
+  }
+
+  // A request to stop ends the run, and no case starts after it returns.
+  @Test public void testStop() throws Exception {
+    started.set(0);
+    final RunNotifier notifier = new RunNotifier();
+    notifier.addListener(new RunListener() {
+      @Override public void testFinished(Description description) {
+        if (description.getMethodName().equals("test[2]")) { notifier.pleaseStop(); }
+      }
+    });
+    try {
+      new StreamingParameterized(Cases.class).run(notifier);
+      throw new AssertionError("The run wasn't stopped.");
+    } catch (StoppedByUserException e) {
+      int atStop = started.get();
+      Thread.sleep(200);
+      assertEquals(atStop, started.get());
+      assertTrue(atStop + " cases started.", atStop < 20);
+    }
+  }
+
+  // A filter picks cases out as they're read, as an IDE does to rerun one.
+  @Test public void testFilterSelectsCases() throws Exception {
+    Filter one = Filter.matchMethodDescription(Description.createTestDescription(Cases.class, "test[3]"));
+    Result result = new JUnitCore().run(Request.runner(new StreamingParameterized(Cases.class)).filterWith(one));
+    assertEquals(1, result.getRunCount());
+    assertTrue(result.getFailures().toString(), result.wasSuccessful());
+  }
+
+  @Test public void testFilterMatchingNoCaseFails() throws Exception {
+    Filter none = Filter.matchMethodDescription(Description.createTestDescription(Cases.class, "test[100]"));
+    Result result = new JUnitCore().run(Request.runner(new StreamingParameterized(Cases.class)).filterWith(none));
+    assertEquals(0, result.getRunCount());
+    assertEquals(1, result.getFailureCount());
+    assertTrue(result.getFailures().get(0).getMessage(), result.getFailures().get(0).getMessage().startsWith("No case of"));
+  }
+
+  // The cases of one runner share its scan of the class, and another runner makes its own.
+  @Test public void testScanIsPerRunner() throws Exception {
+    StreamingParameterized runner = new StreamingParameterized(Cases.class);
+    StreamingParameterized.CaseRunner first = (StreamingParameterized.CaseRunner) runner.caseRunner(new Object[] {1}, "[1]");
+    StreamingParameterized.CaseRunner second = (StreamingParameterized.CaseRunner) runner.caseRunner(new Object[] {2}, "[2]");
+    StreamingParameterized.CaseRunner other = (StreamingParameterized.CaseRunner) new StreamingParameterized(Cases.class).caseRunner(new Object[] {1}, "[1]");
+    assertSame(first.getTestClass(), second.getTestClass());
+    assertNotSame(first.getTestClass(), other.getTestClass());
+  }
+
+}
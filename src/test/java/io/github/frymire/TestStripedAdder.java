@@ -0,0 +1,44 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Feed the striped accumulators from several threads at once.
+public class TestStripedAdder {
+
+  private static final int THREADS = 8;
+  private static final int ADDS_PER_THREAD = 100000;
+
+  @Test public void testConcurrentIntTotal() throws InterruptedException {
+    final StripedAdder adder = new StripedAdder();
+    run(new Runnable() { public void run() { for (int i = 0; i < ADDS_PER_THREAD; i++) { adder.add(2); } } });
+    assertEquals(2L * THREADS * ADDS_PER_THREAD, adder.sumThenReset());
+    assertEquals(0, adder.sum());
+  }
+
+  @Test public void testConcurrentDoubleTotal() throws InterruptedException {
+    final StripedDoubleAdder adder = new StripedDoubleAdder();
+    run(new Runnable() { public void run() { for (int i = 0; i < ADDS_PER_THREAD; i++) { adder.add(0.5); } } });
+    assertEquals(0.5 * THREADS * ADDS_PER_THREAD, adder.sum(), 0.0);
+  }
+
+  private static void run(Runnable task) throws InterruptedException {
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    try {
+      for (int i = 0; i < THREADS; i++) { pool.execute(task); }
+      pool.shutdown();
+      assertTrue("The adding threads didn't finish.", pool.awaitTermination(1, TimeUnit.MINUTES));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+}
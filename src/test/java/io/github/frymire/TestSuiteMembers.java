@@ -0,0 +1,50 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestSuiteMembers {
+
+  // A constructed suite holding a test that no class can be found for.
+  public static class OpaqueSuite {
+    public static TestSuite suite() {
+      TestSuite suite = new TestSuite();
+      suite.addTest(new TestCase("anonymous") {
+        @Override protected void runTest() {}
+      });
+      return suite;
+    }
+  }
+
+  @Test public void testAnnotatedSuite() {
+    assertEquals(Arrays.<Class<?>>asList(TestWithSetupAndTeardown.class, TestAssertions.class), expand(AnnotatedSuite.class));
+  }
+
+  @Test public void testConstructedSuite() {
+    assertEquals(Arrays.<Class<?>>asList(TestAssertions.class, TestWithSetup.class), expand(ConstructedSuite.class));
+  }
+
+  @Test public void testPlainAndOpaqueClassesStayWhole() {
+    assertEquals(Collections.<Class<?>>singletonList(TestBulkAdder.class), expand(TestBulkAdder.class));
+    assertEquals(Collections.<Class<?>>singletonList(OpaqueSuite.class), expand(OpaqueSuite.class));
+  }
+
+  // Members are listed once, in the order they are first met.
+  @Test public void testMembersAreListedOnce() {
+    assertEquals(Arrays.<Class<?>>asList(TestWithSetupAndTeardown.class, TestAssertions.class, TestWithSetup.class, TestBulkAdder.class),
+        expand(AnnotatedSuite.class, ConstructedSuite.class, TestBulkAdder.class, TestAssertions.class));
+  }
+
+  private static List<Class<?>> expand(Class<?>... classes) { return SuiteMembers.expand(Arrays.asList(classes)); }
+
+}
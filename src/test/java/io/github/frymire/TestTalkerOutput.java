@@ -0,0 +1,68 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+// Every write path produces the same bytes as encoding sayHi() by hand.
+public class TestTalkerOutput {
+
+  Talker talker = new Talker();
+  String expected = talker.sayHi();
+
+  @Test public void testWriteToByteBuffer() {
+    ByteBuffer buffer = ByteBuffer.allocate(talker.hiLength());
+    talker.writeHi(buffer);
+    assertEquals(expected, new String(buffer.array(), StandardCharsets.UTF_8));
+  }
+
+  @Test public void testWriteToPipe() throws IOException {
+    Pipe pipe = Pipe.open();
+    try {
+      talker.writeHi(pipe.sink());
+      ByteBuffer read = ByteBuffer.allocate(talker.hiLength());
+      while (read.hasRemaining()) { pipe.source().read(read); }
+      read.flip();
+      assertEquals(talker.hiBytes(), read);
+    } finally {
+      pipe.sink().close();
+      pipe.source().close();
+    }
+  }
+
+  @Test(expected = IllegalBlockingModeException.class)
+  public void testRefusesNonBlockingChannels() throws IOException {
+    Pipe pipe = Pipe.open();
+    try {
+      pipe.sink().configureBlocking(false);
+      talker.writeHi(pipe.sink());
+    } finally {
+      pipe.sink().close();
+      pipe.source().close();
+    }
+  }
+
+  @Test public void testWriteToStreamAndChannel() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    talker.writeHi(out);
+    talker.writeHi(Channels.newChannel(out));
+    talker.writeHi(Channels.newChannel(out));
+    assertEquals(expected + expected + expected, out.toString("UTF-8"));
+  }
+
+  @Test public void testHiBytesIsReadOnly() {
+    assertEquals(true, talker.hiBytes().isReadOnly());
+    assertEquals(talker.hiLength(), talker.hiBytes().remaining());
+  }
+
+}
@@ -0,0 +1,94 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestTimingHistory {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  public static class ThreeTests {
+    @Test public void a() {}
+    @Test public void b() {}
+    @Test public void c() {}
+  }
+
+  private static final List<Class<?>> FIVE = Arrays.<Class<?>>asList(
+      TestCompensatedSum.class, TestAssertions.class, TestMappedFileAdder.class, TestBulkAdder.class, TestStripedAdder.class);
+
+  @Test public void testEstimates() throws IOException {
+    TimingHistory history = history("class.io.github.frymire.TestAssertions", "40",
+        "class.io.github.frymire.TestWithSetupAndTeardown", "15", "method.io.github.frymire.X#a", "2", "method.io.github.frymire.X#b", "4");
+    assertEquals(40, history.estimate(TestAssertions.class), 0);
+    assertEquals(55, history.estimate(AnnotatedSuite.class), 0);
+    assertEquals(3 * 3, history.estimate(ThreeTests.class), 0);
+    assertEquals(3 * TimingHistory.DEFAULT_METHOD_MILLIS, TimingHistory.load(new File(folder.getRoot(), "none")).estimate(ThreeTests.class), 0);
+  }
+
+  // Longest first, then each class to the group with the least work so far.
+  @Test public void testOrderAndPartition() throws IOException {
+    TimingHistory history = durations(10, 40, 20, 50, 30);
+    assertEquals(Arrays.asList(FIVE.get(3), FIVE.get(1), FIVE.get(4), FIVE.get(2), FIVE.get(0)), history.longestFirst(FIVE));
+    assertEquals(Arrays.asList(Arrays.asList(FIVE.get(3), FIVE.get(2), FIVE.get(0)), Arrays.asList(FIVE.get(1), FIVE.get(4))),
+        history.partition(FIVE, 2));
+  }
+
+  @Test public void testTiesKeepTheirOrder() throws IOException {
+    assertEquals(FIVE, durations(5, 5, 5, 5, 5).longestFirst(FIVE));
+  }
+
+  @Test public void testRecordSaveAndMerge() throws IOException, InterruptedException {
+    TimingListener timings = new TimingListener();
+    for (String method : new String[] {"a", "b"}) {
+      Description description = Description.createTestDescription(ThreeTests.class, method);
+      timings.testStarted(description);
+      Thread.sleep(5);
+      timings.testFinished(description);
+    }
+    TimingHistory history = TimingHistory.load(new File(folder.getRoot(), "none"));
+    history.record(timings);
+    File file = new File(folder.getRoot(), "sub/timings.properties");
+    history.save(file);
+    TimingHistory loaded = TimingHistory.load(file);
+    assertTrue(loaded.estimate(ThreeTests.class) >= 10);
+    assertEquals(history.estimate(ThreeTests.class), loaded.estimate(ThreeTests.class), 0);
+    TimingHistory merged = durations(1, 2, 3, 4, 5);
+    merged.merge(loaded);
+    assertEquals(history.estimate(ThreeTests.class), merged.estimate(ThreeTests.class), 0);
+    assertEquals(4, merged.estimate(FIVE.get(3)), 0);
+  }
+
+  private TimingHistory durations(double... millis) throws IOException {
+    String[] entries = new String[2 * millis.length];
+    for (int i = 0; i < millis.length; i++) {
+      entries[2 * i] = "class." + FIVE.get(i).getName();
+      entries[2 * i + 1] = Double.toString(millis[i]);
+    }
+    return history(entries);
+  }
+
+  private TimingHistory history(String... entries) throws IOException {
+    Properties properties = new Properties();
+    for (int i = 0; i < entries.length; i += 2) { properties.setProperty(entries[i], entries[i + 1]); }
+    File file = folder.newFile();
+    OutputStream out = new FileOutputStream(file);
+    try { properties.store(out, null); } finally { out.close(); }
+    return TimingHistory.load(file);
+  }
+
+}
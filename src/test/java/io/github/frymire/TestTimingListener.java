@@ -0,0 +1,80 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestTimingListener {
+
+  public static class Sleepers {
+    @Test public void quick() {}
+    @Test public void slow() throws InterruptedException { Thread.sleep(60); }
+    @Test public void middling() throws InterruptedException {
+      Thread.sleep(30);
+      fail("Failed tests are timed too.");
+    }
+  }
+
+  private static final TimingListener timings = new TimingListener();
+
+  @BeforeClass public static void runSleepers() {
+    JUnitCore core = new JUnitCore();
+    core.addListener(timings);
+    core.run(Sleepers.class);
+  }
+
+  @Test public void testEveryTestIsTimed() {
+    List<TimingListener.Timing> all = timings.getTimings();
+    assertEquals(3, all.size());
+    for (TimingListener.Timing timing : all) {
+      assertEquals(Sleepers.class.getName(), timing.className);
+      long least = timing.methodName.equals("slow") ? 60 : timing.methodName.equals("middling") ? 30 : 0;
+      assertTrue(timing.toString(), timing.wallNanos >= least * 1000000);
+    }
+  }
+
+  @Test public void testSlowestFirst() {
+    assertEquals(Arrays.asList("slow", "middling"), names(timings.slowest(2)));
+    assertEquals(Arrays.asList("slow", "middling", "quick"), names(timings.slowest(10)));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    timings.printSlowest(new PrintStream(out, true), 1);
+    String[] lines = out.toString().trim().split("\\R");
+    assertEquals(2, lines.length);
+    assertEquals("Slowest 1 tests:", lines[0]);
+    assertTrue(lines[1], lines[1].endsWith(Sleepers.class.getName() + ".slow"));
+  }
+
+  @Test public void testJson() throws Exception {
+    StringWriter json = new StringWriter();
+    timings.writeJson(json);
+    String text = json.toString();
+    assertTrue(text, text.startsWith("{\"classes\":[{\"class\":\"" + Sleepers.class.getName() + "\",\"tests\":3,"));
+    for (String method : new String[] {"quick", "slow", "middling"}) { assertTrue(text, text.contains("{\"method\":\"" + method + "\"")); }
+    // The slow test lands in the bucket above 60 ms, and every test in some bucket.
+    String histogram = text.substring(text.indexOf("\"histogram\":{") + 13, text.indexOf("},\"methods\""));
+    int counted = 0;
+    for (String bucket : histogram.split(",")) { counted += Integer.parseInt(bucket.substring(bucket.indexOf(':') + 1)); }
+    assertEquals(3, counted);
+    assertTrue(histogram, histogram.contains("\"<64ms\"") || histogram.contains("\"<128ms\""));
+    assertEquals("\"a \\\"b\\\" \\\\ \\u000a\"", TimingListener.quote("a \"b\" \\ \n"));
+  }
+
+  private static List<String> names(List<TimingListener.Timing> list) {
+    String[] names = new String[list.size()];
+    for (int i = 0; i < names.length; i++) { names[i] = list.get(i).methodName; }
+    return Arrays.asList(names);
+  }
+
+}
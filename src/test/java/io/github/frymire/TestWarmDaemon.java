@@ -0,0 +1,105 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Serve from a daemon thread in this JVM. The tests it runs keep their timings in the
+// temporary folder.
+public class TestWarmDaemon {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private File portFile;
+  private Thread server;
+  private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+  private final PrintStream console = new PrintStream(output, true);
+
+  @Before public void serve() throws Exception {
+    portFile = new File(folder.getRoot(), "test-daemon.port");
+    final WarmDaemon daemon = new WarmDaemon(portFile);
+    daemon.requestTimeoutMillis = 200;
+    server = new Thread(new Runnable() {
+      @Override public void run() {
+        try { daemon.serve(); } catch (IOException e) { throw new IllegalStateException(e); }
+      }
+    });
+    server.setDaemon(true);
+    server.start();
+    for (int i = 0; i < 500 && !portFile.isFile(); i++) { Thread.sleep(10); }
+  }
+
+  @After public void stop() throws Exception {
+    if (portFile.isFile()) { WarmDaemon.request(portFile, Collections.singletonList("--stop"), console); }
+    server.join(5000);
+  }
+
+  @Test(timeout = 30000)
+  public void testRunsTests() throws IOException {
+    assertEquals(0, WarmDaemon.request(portFile, args("TestBulkAdder"), console));
+    assertTrue(output.toString(), output.toString().contains("Test successful? -> true"));
+    assertEquals(1, WarmDaemon.request(portFile, args("TestAssertions"), console));
+  }
+
+  @Test public void testPortFileIsOwnerOnly() throws IOException {
+    if (!Files.getFileStore(portFile.toPath()).supportsFileAttributeView("posix")) { return; }
+    assertEquals(EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE),
+        Files.getPosixFilePermissions(portFile.toPath()));
+  }
+
+  // The daemon drops a connection with the wrong token without a result.
+  @Test(timeout = 30000)
+  public void testWrongTokenIsNotSuccess() throws IOException {
+    String port = new String(Files.readAllBytes(portFile.toPath()), StandardCharsets.UTF_8).split(" ")[0];
+    File forged = folder.newFile();
+    Files.write(forged.toPath(), (port + " 0123\n").getBytes(StandardCharsets.UTF_8));
+    assertEquals(WarmDaemon.NO_RESULT, WarmDaemon.request(forged, args("TestBulkAdder"), console));
+  }
+
+  @Test public void testStalePortFile() throws IOException {
+    ServerSocket closed = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+    closed.close();
+    File stale = folder.newFile();
+    Files.write(stale.toPath(), (closed.getLocalPort() + " 0123\n").getBytes(StandardCharsets.UTF_8));
+    assertEquals(WarmDaemon.NO_DAEMON, WarmDaemon.request(stale, args("TestBulkAdder"), console));
+  }
+
+  // A client that connects and says nothing is dropped after the timeout.
+  @Test(timeout = 30000)
+  public void testSilentClientTimesOut() throws IOException {
+    String port = new String(Files.readAllBytes(portFile.toPath()), StandardCharsets.UTF_8).split(" ")[0];
+    Socket silent = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(port));
+    try {
+      assertEquals(0, WarmDaemon.request(portFile, args("TestBulkAdder"), console));
+    } finally {
+      silent.close();
+    }
+  }
+
+  private List<String> args(String testClass) {
+    return Arrays.asList("--history", new File(folder.getRoot(), "timings.properties").getPath(), testClass);
+  }
+
+}
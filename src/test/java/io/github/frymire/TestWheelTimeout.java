@@ -0,0 +1,26 @@
+package io.github.frymire;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.assertTrue;
+
+// The same timeouts as in TestTimeout, enforced without starting a thread per test.
+@RunWith(WheelTimeoutRunner.class)
+public class TestWheelTimeout {
+
+  // This fails and reports the time it actually took.
+  @Test(timeout=500)
+  public void testLongMethod() throws InterruptedException { 
+    System.out.println("Starting testLongMethod()...");
+    Thread.sleep(600);
+    assertTrue(true);
+  }
+
+  // This passes.
+  @Test(timeout=500)
+  public void testShortMethod() throws InterruptedException { 
+    Thread.sleep(50);
+    assertTrue(true);
+  }
+
+}
@@ -0,0 +1,102 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runner.notification.Failure;
+import org.junit.runners.model.TestTimedOutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestWheelTimeoutRunner {
+
+  static volatile boolean released;
+
+  // Tests that no interrupt stops, held until released.
+  @RunWith(WheelTimeoutRunner.class)
+  public static class Stuck {
+    @Test(timeout = 100)
+    public void spin() {
+      while (!released) { Thread.yield(); }
+    }
+    @Test(timeout = 100)
+    public void ignoreInterrupts() {
+      while (!released) {
+        try { Thread.sleep(10); } catch (InterruptedException e) { continue; }
+      }
+    }
+  }
+
+  @RunWith(WheelTimeoutRunner.class)
+  public static class InTime {
+    @Test(timeout = 5000)
+    public void fails() { fail("Failed in time."); }
+    @Test(timeout = 5000)
+    public void passes() {}
+  }
+
+  @RunWith(WheelTimeoutRunner.class)
+  public static class PrintsFirst {
+    @Test(timeout = 5000)
+    public void print() { System.out.println("first"); }
+  }
+
+  @RunWith(WheelTimeoutRunner.class)
+  public static class PrintsSecond {
+    @Test(timeout = 5000)
+    public void print() { System.out.println("second"); }
+  }
+
+  @After public void release() { released = true; }
+
+  // The run moves on at the deadline, and each failure shows where its test was stuck.
+  @Test(timeout = 30000)
+  public void testStuckTestsDontHoldUpTheRun() {
+    released = false;
+    long start = System.nanoTime();
+    Result result = JUnitCore.runClasses(Stuck.class);
+    assertTrue((System.nanoTime() - start) / 1000000 < 5000);
+    assertEquals(2, result.getFailureCount());
+    for (Failure failure : result.getFailures()) {
+      assertEquals(TestTimedOutException.class, failure.getException().getClass());
+      boolean inTest = false;
+      for (StackTraceElement frame : failure.getException().getStackTrace()) {
+        inTest |= frame.getMethodName().equals(failure.getDescription().getMethodName());
+      }
+      assertTrue(failure.toString(), inTest);
+    }
+  }
+
+  @Test public void testFailuresInTimeAreKept() {
+    Result result = JUnitCore.runClasses(InTime.class);
+    assertEquals(2, result.getRunCount());
+    assertEquals(1, result.getFailureCount());
+    assertEquals("Failed in time.", result.getFailures().get(0).getMessage());
+  }
+
+  // Output from the pooled workers goes to the class that ran the test, even when the
+  // worker was started while another class was running.
+  @Test public void testOutputFollowsTheTest() throws InterruptedException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PrintStream console = System.out;
+    System.setOut(new PrintStream(output, true));
+    Result result;
+    try {
+      result = new ParallelRunner(1).run(PrintsFirst.class, PrintsSecond.class);
+    } finally {
+      System.setOut(console);
+    }
+    assertTrue(result.getFailures().toString(), result.wasSuccessful());
+    assertEquals("first\nsecond\n", output.toString().replace(System.lineSeparator(), "\n"));
+  }
+
+}
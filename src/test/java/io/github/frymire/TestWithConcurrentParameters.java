@@ -0,0 +1,47 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runners.Parameterized.Parameters;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Run independent parameter sets four at a time. Each case sleeps briefly, so the class
+// finishes in about a quarter of the time it takes with one case at a time, and the cases
+// are seen to overlap.
+@RunWith(StreamingParameterized.class)
+@StreamingParameterized.Concurrency(4)
+public class TestWithConcurrentParameters {
+
+  private static final AtomicInteger running = new AtomicInteger();
+  private static final AtomicInteger mostRunning = new AtomicInteger();
+
+  private int value;
+
+  public TestWithConcurrentParameters(int value) { this.value = value; }
+
+  @Parameters(name = "{0}")
+  public static Stream<Integer> values() { return IntStream.range(0, 40).boxed(); }
+
+  @Test public void testDoubling() throws InterruptedException {
+    mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+    try {
+      Thread.sleep(10);
+      assertEquals(value * 2, new Adder().add(value, value));
+    } finally {
+      running.decrementAndGet();
+    }
+  }
+
+  @AfterClass public static void casesOverlapped() {
+    assertTrue("At most " + mostRunning.get() + " case ran at once.", mostRunning.get() > 1);
+  }
+
+}
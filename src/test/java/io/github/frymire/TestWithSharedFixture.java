@@ -0,0 +1,41 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+// Use a fixture from the shared registry instead of building it in @BeforeClass. Any other
+// class asking for "demo words" while this one runs (or while a suite with a scope for it
+// runs) gets the same list, built only once.
+public class TestWithSharedFixture {
+
+  @ClassRule
+  public static SharedFixtures.Fixture<List<String>> words = SharedFixtures.fixture("demo words", () -> {
+    System.out.println("Building the shared fixture");
+    return Collections.unmodifiableList(new ArrayList<String>(Arrays.asList("one", "two", "three")));
+  });
+
+  private static List<String> atStart;
+
+  // The fixture is ready by the time @BeforeClass runs.
+  @BeforeClass public static void keepFixture() { atStart = words.get(); }
+
+  @Test public void testFixtureIsBuilt() { assertEquals(3, words.get().size()); }
+
+  @Test public void testFixtureIsKeptForTheClass() {
+    assertTrue(words.get().contains("two"));
+    assertSame(atStart, words.get());
+  }
+
+}
@@ -0,0 +1,32 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.junit.runners.Parameterized.Parameters;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.assertEquals;
+
+// Run a test against a stream of test values that is only read as the tests run.
+@RunWith(StreamingParameterized.class)
+public class TestWithStreamingParameters {
+
+  private int a;
+  private int b;
+  private Adder adder = new Adder();
+
+  // Each parameter set is spread over the constructor arguments. 
+  public TestWithStreamingParameters(int a, int b) { this.a = a; this.b = b; }
+
+  // Generate the pairs lazily. This could just as well read lines from a data file.
+  @Parameters(name = "{index}: {0} + {1}")
+  public static Stream<Object[]> values() {
+    return IntStream.rangeClosed(1, 1000).mapToObj(i -> new Object[] {i, -i});
+  }
+
+  @Test public void testSumIsZero() { assertEquals(0, adder.add(a, b)); }
+
+}
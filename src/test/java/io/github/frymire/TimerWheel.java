@@ -0,0 +1,84 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+// A hashed timer wheel: one daemon thread serves every deadline, however many are armed.
+// Time is cut into ticks and a task lands in the bucket for the tick it's due in, with a
+// count of the full turns of the wheel still to wait. Scheduling and cancelling are cheap
+// and lock-free; tasks fire up to one tick late, which suits coarse deadlines like test
+// timeouts. Tasks run on the timer thread, so they must be short.
+public class TimerWheel {
+
+  // Shared by everything that needs timeouts, so there is only ever one timer thread.
+  public static final TimerWheel SHARED = new TimerWheel(10, TimeUnit.MILLISECONDS, 512);
+
+  // A handle for a scheduled task.
+  public static class Timeout {
+    private final Runnable task;
+    private final long deadline;
+    private long rounds;
+    private volatile boolean cancelled;
+    Timeout(Runnable task, long deadline) { this.task = task; this.deadline = deadline; }
+    public void cancel() { cancelled = true; }
+  }
+
+  private final long tickNanos;
+  private final List<List<Timeout>> buckets = new ArrayList<List<Timeout>>();
+  private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<Timeout>();
+  private final long start = System.nanoTime();
+  private long tick = 0;
+
+  public TimerWheel(long tickDuration, TimeUnit unit, int wheelSize) {
+    this.tickNanos = unit.toNanos(tickDuration);
+    for (int i = 0; i < wheelSize; i++) { buckets.add(new ArrayList<Timeout>()); }
+    Thread thread = new Thread(new Runnable() { @Override public void run() { turn(); } }, "timer-wheel");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+    Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(delay));
+    pending.add(timeout);
+    return timeout;
+  }
+
+  // Only the timer thread touches the buckets.
+  private void turn() {
+    while (true) {
+
+      long next = start + (tick + 1) * tickNanos;
+      for (long now = System.nanoTime(); now < next; now = System.nanoTime()) {
+        try { TimeUnit.NANOSECONDS.sleep(next - now); } catch (InterruptedException e) { return; }
+      }
+
+      for (Timeout timeout = pending.poll(); timeout != null; timeout = pending.poll()) { place(timeout); }
+
+      Iterator<Timeout> due = buckets.get((int) (tick % buckets.size())).iterator();
+      while (due.hasNext()) {
+        Timeout timeout = due.next();
+        if (timeout.cancelled) { due.remove(); }
+        else if (timeout.rounds > 0) { timeout.rounds--; }
+        else {
+          due.remove();
+          try { timeout.task.run(); } catch (RuntimeException e) { e.printStackTrace(); }
+        }
+      }
+      tick++;
+
+    }
+  }
+
+  // Put a new task in the bucket of the tick it's due in (or the current one, if overdue).
+  private void place(Timeout timeout) {
+    long dueTick = Math.max((timeout.deadline - start + tickNanos - 1) / tickNanos, tick);
+    timeout.rounds = (dueTick - tick) / buckets.size();
+    buckets.get((int) (dueTick % buckets.size())).add(timeout);
+  }
+
+}
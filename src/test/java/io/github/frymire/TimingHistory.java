@@ -0,0 +1,143 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+// Test durations remembered from earlier runs, kept in a properties file with one
+// "class.NAME" entry per test class and one "method.CLASS#METHOD" entry per test method, in
+// milliseconds. They are used to start the longest classes first (LPT scheduling), so
+// that a long class that happens to come last doesn't set the wall-clock time.
+public class TimingHistory {
+
+  // The guess for a test method that has never been timed, when nothing else is known.
+  static final double DEFAULT_METHOD_MILLIS = 10;
+
+  private final Properties durations = new Properties();
+
+  // Load the history in the file, or start an empty one if there is no file yet.
+  public static TimingHistory load(File file) throws IOException {
+    TimingHistory history = new TimingHistory();
+    if (file.isFile()) {
+      InputStream in = new FileInputStream(file);
+      try { history.durations.load(in); } finally { in.close(); }
+    }
+    return history;
+  }
+
+  public void save(File file) throws IOException {
+    File parent = file.getAbsoluteFile().getParentFile();
+    if (parent != null) { parent.mkdirs(); }
+    OutputStream out = new FileOutputStream(file);
+    try { durations.store(out, "Test durations in milliseconds"); } finally { out.close(); }
+  }
+
+  public boolean isEmpty() { return durations.isEmpty(); }
+
+  // Replace the durations of the classes and methods that ran with their new times.
+  public void record(TimingListener timings) {
+    Map<String, Double> classTotals = new HashMap<String, Double>();
+    for (TimingListener.Timing timing : timings.getTimings()) {
+      double millis = TimingListener.millis(timing.wallNanos);
+      durations.setProperty("method." + timing.className + "#" + timing.methodName, Double.toString(millis));
+      Double total = classTotals.get(timing.className);
+      classTotals.put(timing.className, total == null ? millis : total + millis);
+    }
+    for (Map.Entry<String, Double> total : classTotals.entrySet()) {
+      durations.setProperty("class." + total.getKey(), Double.toString(total.getValue()));
+    }
+  }
+
+  // Take every entry of another history, such as one written by a forked shard.
+  public void merge(TimingHistory other) { durations.putAll(other.durations); }
+
+  // The expected duration of a class in milliseconds. A suite is the sum of its members. A
+  // class that has never run is its test method count times the mean method duration.
+  public double estimate(Class<?> testClass) {
+
+    List<Class<?>> members = SuiteMembers.expand(Collections.<Class<?>>singletonList(testClass));
+    if (members.size() != 1 || members.get(0) != testClass) {
+      double total = 0;
+      for (Class<?> member : members) { total += estimate(member); }
+      return total;
+    }
+
+    String known = durations.getProperty("class." + testClass.getName());
+    if (known != null) { return Double.parseDouble(known); }
+    return testMethodCount(testClass) * meanMethodMillis();
+
+  }
+
+  // Order classes longest first. Ties keep their given order.
+  public List<Class<?>> longestFirst(List<Class<?>> classes) {
+    final Map<Class<?>, Double> estimates = estimates(classes);
+    List<Class<?>> sorted = new ArrayList<Class<?>>(classes);
+    Collections.sort(sorted, new Comparator<Class<?>>() {
+      @Override public int compare(Class<?> a, Class<?> b) { return Double.compare(estimates.get(b), estimates.get(a)); }
+    });
+    return sorted;
+  }
+
+  // Split classes into count groups of about equal total duration: take the classes longest
+  // first and give each to the group with the least work so far.
+  public List<List<Class<?>>> partition(List<Class<?>> classes, int count) {
+    Map<Class<?>, Double> estimates = estimates(classes);
+    List<List<Class<?>>> groups = new ArrayList<List<Class<?>>>();
+    double[] loads = new double[count];
+    for (int i = 0; i < count; i++) { groups.add(new ArrayList<Class<?>>()); }
+    for (Class<?> testClass : longestFirst(classes)) {
+      int lightest = 0;
+      for (int i = 1; i < count; i++) { if (loads[i] < loads[lightest]) { lightest = i; } }
+      groups.get(lightest).add(testClass);
+      loads[lightest] += estimates.get(testClass);
+    }
+    return groups;
+  }
+
+  private Map<Class<?>, Double> estimates(List<Class<?>> classes) {
+    Map<Class<?>, Double> estimates = new HashMap<Class<?>, Double>();
+    for (Class<?> testClass : classes) { estimates.put(testClass, estimate(testClass)); }
+    return estimates;
+  }
+
+  private double meanMethodMillis() {
+    double total = 0;
+    int count = 0;
+    for (String key : durations.stringPropertyNames()) {
+      if (key.startsWith("method.")) {
+        total += Double.parseDouble(durations.getProperty(key));
+        count++;
+      }
+    }
+    return count == 0 ? DEFAULT_METHOD_MILLIS : total / count;
+  }
+
+  // Count JUnit 4 @Test methods and JUnit 3 test... methods. At least one, so that a class
+  // whose tests are generated (e.g. parameterized) still gets some weight.
+  private static int testMethodCount(Class<?> testClass) {
+    int count = 0;
+    boolean junit3 = TestCase.class.isAssignableFrom(testClass);
+    for (Method method : testClass.getMethods()) {
+      if (method.isAnnotationPresent(Test.class) || (junit3 && method.getName().startsWith("test"))) { count++; }
+    }
+    return Math.max(count, 1);
+  }
+
+}
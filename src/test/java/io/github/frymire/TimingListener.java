@@ -0,0 +1,181 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunListener;
+
+// Record the wall and CPU time of every test method, then summarize them per class as
+// percentiles and a histogram with power-of-two millisecond buckets. CPU time is that of
+// the thread that reports the test, so a test run on a separate thread (as with a timeout)
+// shows little CPU time, unless its runner measured it there and hands the times over.
+@RunListener.ThreadSafe
+public class TimingListener extends RunListener {
+
+  private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+  // The measurements for one test method. Forked shards send theirs back to the coordinator.
+  public static class Timing implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public final String className;
+    public final String methodName;
+    public final long wallNanos;
+    public final long cpuNanos;
+    Timing(String className, String methodName, long wallNanos, long cpuNanos) {
+      this.className = className;
+      this.methodName = methodName;
+      this.wallNanos = wallNanos;
+      this.cpuNanos = cpuNanos;
+    }
+    @Override public String toString() { return className + "." + methodName + " " + millis(wallNanos) + " ms"; }
+  }
+
+  // The times of a test that ran on another thread and is reported afterwards, as
+  // StreamingParameterized reports cases that it ran concurrently. Set while its finish is.
+  private static final ThreadLocal<long[]> MEASURED = new ThreadLocal<long[]>();
+
+  static void measuredElsewhere(long wallNanos, long cpuNanos, Runnable reportFinish) {
+    MEASURED.set(new long[] {wallNanos, cpuNanos});
+    try { reportFinish.run(); } finally { MEASURED.remove(); }
+  }
+
+  private final Map<Description, long[]> started = new ConcurrentHashMap<Description, long[]>();
+  private final ConcurrentLinkedQueue<Timing> timings = new ConcurrentLinkedQueue<Timing>();
+
+  @Override public void testStarted(Description description) {
+    started.put(description, new long[] {System.nanoTime(), cpuTime()});
+  }
+
+  @Override public void testFinished(Description description) {
+    long[] start = started.remove(description);
+    if (start == null) { return; }
+    long[] measured = MEASURED.get();
+    timings.add(new Timing(description.getClassName(), description.getMethodName(),
+        measured != null ? measured[0] : System.nanoTime() - start[0], measured != null ? measured[1] : cpuTime() - start[1]));
+  }
+
+  public List<Timing> getTimings() { return new ArrayList<Timing>(timings); }
+
+  // Add timings measured by another listener, such as one in a shard's child JVM.
+  public void addAll(Collection<Timing> measured) { timings.addAll(measured); }
+
+  // The slowest tests by wall time, slowest first.
+  public List<Timing> slowest(int n) {
+    List<Timing> sorted = getTimings();
+    Collections.sort(sorted, new Comparator<Timing>() {
+      @Override public int compare(Timing a, Timing b) { return Long.compare(b.wallNanos, a.wallNanos); }
+    });
+    return sorted.subList(0, Math.min(n, sorted.size()));
+  }
+
+  public void printSlowest(PrintStream out, int n) {
+    out.println("Slowest " + n + " tests:");
+    for (Timing timing : slowest(n)) {
+      out.println(String.format("  %10.3f ms wall %10.3f ms cpu  %s.%s",
+          millis(timing.wallNanos), millis(timing.cpuNanos), timing.className, timing.methodName));
+    }
+  }
+
+  // Write every test and a summary for each class as one JSON object.
+  public void writeJson(Writer out) throws IOException {
+
+    Map<String, List<Timing>> byClass = new TreeMap<String, List<Timing>>();
+    for (Timing timing : timings) {
+      List<Timing> list = byClass.get(timing.className);
+      if (list == null) { byClass.put(timing.className, list = new ArrayList<Timing>()); }
+      list.add(timing);
+    }
+
+    out.write("{\"classes\":[");
+    String separator = "";
+    for (Map.Entry<String, List<Timing>> entry : byClass.entrySet()) {
+      out.write(separator);
+      writeClass(out, entry.getKey(), entry.getValue());
+      separator = ",";
+    }
+    out.write("]}\n");
+    out.flush();
+
+  }
+
+  private static void writeClass(Writer out, String className, List<Timing> list) throws IOException {
+
+    long[] wall = new long[list.size()];
+    long totalWall = 0, totalCpu = 0;
+    for (int i = 0; i < wall.length; i++) {
+      wall[i] = list.get(i).wallNanos;
+      totalWall += list.get(i).wallNanos;
+      totalCpu += list.get(i).cpuNanos;
+    }
+    Arrays.sort(wall);
+
+    out.write("{\"class\":" + quote(className) + ",\"tests\":" + wall.length);
+    out.write(",\"wallMs\":" + millis(totalWall) + ",\"cpuMs\":" + millis(totalCpu));
+    out.write(",\"p50Ms\":" + millis(percentile(wall, 50)) + ",\"p90Ms\":" + millis(percentile(wall, 90)));
+    out.write(",\"p99Ms\":" + millis(percentile(wall, 99)) + ",\"maxMs\":" + millis(wall[wall.length - 1]));
+
+    // Count tests into buckets by the power of two ms just above their wall time.
+    Map<Long, Integer> histogram = new TreeMap<Long, Integer>();
+    for (long nanos : wall) {
+      long bound = 1;
+      while (bound * 1000000L <= nanos) { bound <<= 1; }
+      Integer count = histogram.get(bound);
+      histogram.put(bound, count == null ? 1 : count + 1);
+    }
+    out.write(",\"histogram\":{");
+    String separator = "";
+    for (Map.Entry<Long, Integer> bucket : histogram.entrySet()) {
+      out.write(separator + quote("<" + bucket.getKey() + "ms") + ":" + bucket.getValue());
+      separator = ",";
+    }
+
+    out.write("},\"methods\":[");
+    separator = "";
+    for (Timing timing : list) {
+      out.write(separator + "{\"method\":" + quote(timing.methodName)
+          + ",\"wallMs\":" + millis(timing.wallNanos) + ",\"cpuMs\":" + millis(timing.cpuNanos) + "}");
+      separator = ",";
+    }
+    out.write("]}");
+
+  }
+
+  // The nearest-rank percentile of sorted values.
+  private static long percentile(long[] sorted, int percent) {
+    int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+    return sorted[Math.max(rank, 1) - 1];
+  }
+
+  static double millis(long nanos) { return nanos / 1e6; }
+
+  static long cpuTime() { return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : 0; }
+
+  static String quote(String s) {
+    if (s == null) { return "null"; }
+    StringBuilder quoted = new StringBuilder("\"");
+    for (char c : s.toCharArray()) {
+      if (c == '"' || c == '\\') { quoted.append('\\').append(c); }
+      else if (c < 0x20) { quoted.append(String.format("\\u%04x", (int) c)); }
+      else { quoted.append(c); }
+    }
+    return quoted.append('"').toString();
+  }
+
+}
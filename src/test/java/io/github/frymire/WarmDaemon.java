@@ -0,0 +1,244 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.runner.Result;
+
+// A resident test process that pays for JVM startup, JUnit and JMockit loading and JIT warmup
+// once, then runs TestRunner requests on demand. Each request loads the project's classes
+// afresh in a new class loader, so recompiled tests and production code are picked up,
+// while JUnit and everything else stays loaded and warm. Output streams back to the client.
+//
+//   java ... io.github.frymire.WarmDaemon serve          (start the daemon)
+//   java ... io.github.frymire.WarmDaemon run [options]  (run tests; options as TestRunner)
+//   java ... io.github.frymire.WarmDaemon stop
+//
+// The daemon listens on a loopback port and writes the port and a random token to
+// target/test-daemon.port, readable by its owner only. Requests without the token are
+// refused. (Unix-domain sockets would need Java 16.) A client that doesn't send its whole
+// request within REQUEST_TIMEOUT_MILLIS is dropped, so it can't hold up the daemon. "run"
+// exits with 0 only when the daemon reports that every test passed; if the connection ends
+// without a result (the daemon died, a test called System.exit, or the token was refused),
+// it exits with NO_RESULT.
+public class WarmDaemon {
+
+  private static final String MARKER = "\u0001result ";
+  static final int NO_DAEMON = 2;
+  static final int NO_RESULT = 3;
+  private static final String PACKAGE = WarmDaemon.class.getPackage().getName() + ".";
+
+  // Project classes that hold threads or other process-wide state, and so are loaded once
+  // rather than with each request.
+  private static final String[] RESIDENT = {TimerWheel.class.getName(), WarmDaemon.class.getName()};
+
+  private final File portFile;
+  private final String token;
+  private final URL[] classDirectories;
+  int requestTimeoutMillis = 10000;
+
+  WarmDaemon(File portFile) throws URISyntaxException, IOException {
+    this.portFile = portFile;
+    byte[] random = new byte[16];
+    new SecureRandom().nextBytes(random);
+    StringBuilder hex = new StringBuilder();
+    for (byte b : random) { hex.append(String.format("%02x", b)); }
+    this.token = hex.toString();
+    List<URL> dirs = new ArrayList<URL>();
+    for (Class<?> anchor : new Class<?>[] {Adder.class, TestRunner.class}) {
+      URL location = anchor.getProtectionDomain().getCodeSource().getLocation();
+      if (new File(location.toURI()).isDirectory() && !dirs.contains(location)) { dirs.add(location); }
+    }
+    this.classDirectories = dirs.toArray(new URL[dirs.size()]);
+  }
+
+  public static void main(String[] args) throws Exception {
+    File portFile = new File("target", "test-daemon.port");
+    String command = args.length == 0 ? "run" : args[0];
+    List<String> rest = new ArrayList<String>();
+    for (int i = 1; i < args.length; i++) { rest.add(args[i]); }
+    if (command.equals("serve")) { new WarmDaemon(portFile).serve(); }
+    else if (command.equals("run")) { System.exit(request(portFile, rest, System.out)); }
+    else if (command.equals("stop")) { System.exit(request(portFile, Collections.singletonList("--stop"), System.out)); }
+    else { throw new IllegalArgumentException("Expected serve, run or stop, not " + command); }
+  }
+
+  // Serve requests one at a time, since each one takes over System.out.
+  void serve() throws IOException {
+    ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    writePortFile(server.getLocalPort());
+    System.out.println("Test daemon listening on port " + server.getLocalPort());
+    try {
+      while (true) {
+        Socket socket = server.accept();
+        try { if (!handle(socket)) { return; } }
+        catch (IOException e) { System.err.println("Request failed: " + e); }
+        finally { socket.close(); }
+      }
+    } finally {
+      server.close();
+      portFile.delete();
+    }
+  }
+
+  // Handle one request. Returns false when asked to stop.
+  private boolean handle(Socket socket) throws IOException {
+
+    socket.setSoTimeout(requestTimeoutMillis);
+    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    if (!token.equals(in.readLine())) { return true; }
+    List<String> args = new ArrayList<String>();
+    for (String line = in.readLine(); line != null && !line.isEmpty(); line = in.readLine()) { args.add(line); }
+
+    OutputStream socketOut = socket.getOutputStream();
+    PrintStream out = new PrintStream(socketOut, true, "UTF-8");
+    if (args.contains("--stop")) {
+      out.print(MARKER + "0\n");
+      out.flush();
+      return false;
+    }
+    PrintStream originalOut = System.out;
+    PrintStream originalErr = System.err;
+    System.setOut(out);
+    System.setErr(out);
+    int failures = -1;
+    try {
+      failures = runFresh(args.toArray(new String[args.size()])).getFailureCount();
+    } catch (Throwable e) {
+      (e instanceof InvocationTargetException ? e.getCause() : e).printStackTrace(out);
+    } finally {
+      System.setOut(originalOut);
+      System.setErr(originalErr);
+    }
+    out.print(MARKER + failures + "\n");
+    out.flush();
+    return true;
+
+  }
+
+  // Run TestRunner from a new loader that reads the project's classes from disk again.
+  private Result runFresh(String[] args) throws Exception {
+    URLClassLoader loader = new ReloadingClassLoader(classDirectories, WarmDaemon.class.getClassLoader());
+    ClassLoader previous = Thread.currentThread().getContextClassLoader();
+    Thread.currentThread().setContextClassLoader(loader);
+    try {
+      Class<?> runner = Class.forName(TestRunner.class.getName(), true, loader);
+      return (Result) runner.getMethod("run", String[].class).invoke(null, (Object) args);
+    } finally {
+      Thread.currentThread().setContextClassLoader(previous);
+      loader.close();
+    }
+  }
+
+  // Write the port and token to a file that is created readable by its owner only, then
+  // move it into place, so a client never sees it empty or half written.
+  private void writePortFile(int port) throws IOException {
+    File parent = portFile.getAbsoluteFile().getParentFile();
+    if (parent != null) { parent.mkdirs(); }
+    Path temporary = new File(portFile.getPath() + ".tmp").toPath();
+    Files.deleteIfExists(temporary);
+    if (temporary.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      Files.createFile(temporary, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    } else {
+      File file = Files.createFile(temporary).toFile();
+      file.setReadable(false, false);
+      file.setWritable(false, false);
+      file.setReadable(true, true);
+      file.setWritable(true, true);
+    }
+    Files.write(temporary, (port + " " + token + "\n").getBytes(StandardCharsets.UTF_8));
+    Files.move(temporary, portFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    portFile.deleteOnExit();
+  }
+
+  // Send a request to the running daemon and copy its output to the console. Returns an exit
+  // status: 0 if every test passed, 1 if some failed, NO_DAEMON or NO_RESULT otherwise.
+  static int request(File portFile, List<String> args, PrintStream console) throws IOException {
+
+    if (!portFile.isFile()) {
+      System.err.println("No test daemon is running; start one with \"WarmDaemon serve\".");
+      return NO_DAEMON;
+    }
+    String[] portAndToken = new String(Files.readAllBytes(portFile.toPath()), StandardCharsets.UTF_8).trim().split(" ");
+
+    Socket socket;
+    try {
+      socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(portAndToken[0]));
+    } catch (ConnectException e) {
+      System.err.println("No test daemon is listening on the port in " + portFile + "; it may have died.");
+      return NO_DAEMON;
+    }
+    try {
+      PrintStream out = new PrintStream(socket.getOutputStream(), true, "UTF-8");
+      out.print(portAndToken[1] + "\n");
+      for (String arg : args) { out.print(arg + "\n"); }
+      out.print("\n");
+      out.flush();
+
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      for (String line = in.readLine(); line != null; line = in.readLine()) {
+        int marker = line.indexOf(MARKER);
+        if (marker < 0) { console.println(line); continue; }
+        if (marker > 0) { console.println(line.substring(0, marker)); }
+        return Integer.parseInt(line.substring(marker + MARKER.length()).trim()) == 0 ? 0 : 1;
+      }
+      System.err.println("The test daemon ended the request without a result.");
+      return NO_RESULT;
+    } finally {
+      socket.close();
+    }
+
+  }
+
+  // Loads the project's classes itself, ahead of its parent, so each request sees the class
+  // files as they are now. Everything else (JUnit, JMockit, the JDK) comes from the parent.
+  private static class ReloadingClassLoader extends URLClassLoader {
+
+    ReloadingClassLoader(URL[] urls, ClassLoader parent) { super(urls, parent); }
+
+    @Override protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (!name.startsWith(PACKAGE) || isResident(name)) { return super.loadClass(name, resolve); }
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> loaded = findLoadedClass(name);
+        if (loaded == null) {
+          try { loaded = findClass(name); }
+          catch (ClassNotFoundException e) { return super.loadClass(name, resolve); }
+        }
+        if (resolve) { resolveClass(loaded); }
+        return loaded;
+      }
+    }
+
+    private static boolean isResident(String name) {
+      for (String resident : RESIDENT) {
+        if (name.equals(resident) || name.startsWith(resident + "$")) { return true; }
+      }
+      return false;
+    }
+
+  }
+
+}
@@ -0,0 +1,111 @@
+// UNCLASSIFIED
+
+package io.github.frymire;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestTimedOutException;
+
+// Honor @Test(timeout=...) without a new thread per test. The standard runner starts a
+// thread for each timed test and watches it from the runner's thread. This one runs the test
+// on a pooled worker thread, which later tests reuse, and arms its deadline on the shared
+// TimerWheel instead of a watcher. When the test overruns, the wheel interrupts it and the
+// runner moves on at once, failing it with the test's stack at that moment and how long it
+// ran. A test that spins or ignores interrupts keeps its worker busy, as it would keep its
+// thread under the standard runner, but doesn't hold up the run. The workers are platform
+// threads from a cached pool rather than virtual threads, which this Java 8 build doesn't
+// have. Each test carries its caller's ParallelRunner output buffer to the worker, since a
+// reused worker would otherwise write into the buffer of whichever class created it.
+public class WheelTimeoutRunner extends BlockJUnit4ClassRunner {
+
+  // Daemon threads, so a test that never stops doesn't keep the JVM alive.
+  private static final ExecutorService WORKERS = Executors.newCachedThreadPool(new ThreadFactory() {
+    private final AtomicInteger count = new AtomicInteger();
+    @Override public Thread newThread(Runnable task) {
+      Thread thread = new Thread(task, "wheel-timeout-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  });
+
+  public WheelTimeoutRunner(Class<?> testClass) throws InitializationError { super(testClass); }
+
+  @SuppressWarnings("deprecation")
+  @Override protected Statement withPotentialTimeout(FrameworkMethod method, Object test, Statement next) {
+    Test annotation = method.getAnnotation(Test.class);
+    long timeout = annotation == null ? 0 : annotation.timeout();
+    return timeout <= 0 ? next : new WheelTimeout(next, timeout);
+  }
+
+  private static class WheelTimeout extends Statement {
+
+    private final Statement next;
+    private final long timeoutMillis;
+
+    WheelTimeout(Statement next, long timeoutMillis) {
+      this.next = next;
+      this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override public void evaluate() throws Throwable {
+
+      final AtomicReference<Thread> worker = new AtomicReference<Thread>();
+      final AtomicReference<StackTraceElement[]> stack = new AtomicReference<StackTraceElement[]>();
+      final FutureTask<Throwable> task = new FutureTask<Throwable>(ParallelRunner.capturing(new Callable<Throwable>() {
+        @Override public Throwable call() {
+          worker.set(Thread.currentThread());
+          try { next.evaluate(); } catch (Throwable e) { return e; }
+          return null;
+        }
+      }));
+      long start = System.nanoTime();
+      WORKERS.execute(task);
+
+      TimerWheel.Timeout deadline = TimerWheel.SHARED.schedule(new Runnable() {
+        @Override public void run() {
+          Thread thread = worker.get();
+          if (thread != null) { stack.set(thread.getStackTrace()); }
+          task.cancel(true);
+        }
+      }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+      Throwable failure = null;
+      boolean fired = false;
+      try {
+        failure = task.get();
+      } catch (CancellationException e) {
+        fired = true;
+      } catch (InterruptedException e) {
+        task.cancel(true);
+        throw e;
+      } finally {
+        deadline.cancel();
+      }
+
+      long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      if (fired || elapsed > timeoutMillis) {
+        TestTimedOutException timedOut = new TestTimedOutException(elapsed, TimeUnit.MILLISECONDS);
+        if (stack.get() != null) { timedOut.setStackTrace(stack.get()); }
+        if (failure != null) { timedOut.addSuppressed(failure); }
+        throw timedOut;
+      }
+      if (failure != null) { throw failure; }
+
+    }
+
+  }
+
+}